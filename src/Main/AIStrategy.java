@@ -0,0 +1,52 @@
+package Main;
+/*
+ * This interface is implemented by every AI that can play a seat of Card Battle. CardBattleAI asks the strategy
+ * registered under the chosen difficulty for a move each turn and places the Card itself, so a strategy only
+ * decides and never changes the game. New strategies are found by AIStrategyRegistry, either registered in code
+ * or listed as providers of Main.AIStrategy in META-INF/services, in which case they need a public no-argument
+ * constructor.
+ *
+ * A strategy instance is used by one game at a time, so it may keep state (such as a search bound to the Board)
+ * between calls.
+ */
+
+public interface AIStrategy {
+
+	// Returns the name of the difficulty this strategy plays, such as "Hard"
+
+	String getName();
+
+	// Returns the Move to make in the given view, or null if the Player to
+	// move cannot place a Card. The Board must be left as it was. A strategy
+	// whose thread is interrupted while it thinks may give up by throwing
+	// CancellationException, leaving the interrupt status set
+
+	Move chooseMove(GameView view);
+
+	// Returns the number of positions or candidate moves the most recent
+	// chooseMove evaluated
+
+	default long getPositionsEvaluated() {
+		return 0;
+	}
+
+	// Sets the number of threads the searches this strategy creates from now
+	// on may run on. Strategies that only think on the calling thread ignore
+	// this
+
+	default void setThreads(int threads) {
+	}
+
+	// Makes every search from now on stop after a fixed amount of work
+	// instead of at a time limit, so the moves chosen depend only on the game
+	// and not on the speed or load of the machine. Strategies that do not
+	// search against the clock ignore this
+
+	default void useFixedBudget() {
+	}
+
+	// Stops any threads this strategy started
+
+	default void shutdown() {
+	}
+}
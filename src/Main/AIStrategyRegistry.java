@@ -0,0 +1,92 @@
+package Main;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.function.Supplier;
+
+/*
+ * This class keeps the AIStrategy available for each difficulty name. The built-in difficulties (Easy, Medium,
+ * Hard, Expert and Master) are registered first, followed by every provider of Main.AIStrategy that ServiceLoader
+ * finds on the class path, so a new AI can be added by shipping a jar without changing the game. Strategies
+ * keep per-game state, so the registry hands out a new instance for each request. Names are not case sensitive,
+ * and a later registration under an existing name replaces it.
+ */
+
+public final class AIStrategyRegistry {
+
+	// Factories by lower case name, and the names as registered, in order
+
+	private static final Map<String, Supplier<? extends AIStrategy>> factories = new LinkedHashMap<String, Supplier<? extends AIStrategy>>();
+	private static final Map<String, String> names = new LinkedHashMap<String, String>();
+
+	static {
+		register("Easy", EasyStrategy::new);
+		register("Medium", () -> new GreedyStrategy(false));
+		register("Hard", () -> new GreedyStrategy(true));
+		register("Expert", ExpertStrategy::new);
+		register("Master", MasterStrategy::new);
+		loadProviders();
+	}
+
+	// Private constructor prevents an AIStrategyRegistry from being created
+
+	private AIStrategyRegistry() {
+	}
+
+	// Registers the given factory under the given difficulty name
+
+	public static synchronized void register(String name, Supplier<? extends AIStrategy> factory) {
+		if (name == null || name.trim().isEmpty()) {
+			throw new IllegalArgumentException("Invalid: Strategy name cannot be empty");
+		}
+		String key = name.toLowerCase(Locale.ROOT);
+		factories.put(key, factory);
+		names.put(key, name);
+	}
+
+	// Returns true if a strategy is registered under the given name
+
+	public static synchronized boolean isRegistered(String name) {
+		return name != null && factories.containsKey(name.toLowerCase(Locale.ROOT));
+	}
+
+	// Returns a new instance of the strategy registered under the given name
+
+	public static synchronized AIStrategy create(String name) {
+		Supplier<? extends AIStrategy> factory = name == null ? null : factories.get(name.toLowerCase(Locale.ROOT));
+		if (factory == null) {
+			throw new IllegalArgumentException("Invalid: No AI strategy named " + name);
+		}
+		return factory.get();
+	}
+
+	// Returns the registered names, in the order they were registered
+
+	public static synchronized List<String> getNames() {
+		return new ArrayList<String>(names.values());
+	}
+
+	// Private helper registers every AIStrategy provider on the class path
+	// under the name it reports. A provider that cannot be loaded is skipped
+
+	private static void loadProviders() {
+		try {
+			ServiceLoader.load(AIStrategy.class).stream().forEach(provider -> {
+				try {
+					AIStrategy probe = provider.get();
+					probe.shutdown();
+					register(probe.getName(), provider::get);
+				} catch (ServiceConfigurationError e) {
+					System.out.println("Skipping AI strategy provider " + provider.type().getName() + ": "
+							+ e.getMessage());
+				}
+			});
+		} catch (ServiceConfigurationError e) {
+			System.out.println("Skipping AI strategy providers: " + e.getMessage());
+		}
+	}
+}
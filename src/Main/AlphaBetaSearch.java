@@ -0,0 +1,446 @@
+package Main;
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/*
+ * This class finds moves for the Expert AI with an alpha-beta search over Card placements. Each ply is one
+ * Player placing a Card from their hand (or passing if they cannot), and after the second Player of each turn
+ * has moved, the turn is ended through the real rules, so attacks, contamination and deaths are all simulated.
+ * Moves are made and taken back with Board.makeMove and makeEndTurn, and contamination deals its average damage
+ * instead of drawing from the game's random streams. Cards drawn in the future and bonuses are not known, so
+ * they are left out. Neither is the opponent's hand: each search deals the opponent a random hand from the
+ * Cards they might hold and searches as if it were theirs, so the Expert AI never sees hidden Cards.
+ *
+ * The search deepens one ply at a time until its time limit runs out and always returns the best move of the
+ * deepest search that got anywhere. A node limit can be set instead, which stops the search after the same
+ * number of positions on any machine, so its moves depend only on the game. Moves are tried in the order the hard greedy AI would rank them, with the
+ * previous iteration's best move first at the root. Results are kept in a TranspositionTable, which may be
+ * shared with other searches, so positions reached by placing the same Cards in a different order are searched
+ * once, and the best move found for a position is tried first when it comes up again.
+ */
+
+public class AlphaBetaSearch {
+
+	public static final long DEFAULT_TIME_LIMIT_MILLIS = 100;
+
+	private static final int MAX_DEPTH = 64;
+	private static final int WIN_SCORE = 1000000;
+	private static final int INFINITY = Integer.MAX_VALUE - 1;
+	static final int AVERAGE_CONTAMINATION_DAMAGE = 5;
+	private static final int PLAYER_HP_WEIGHT = 3;
+
+	// Number of leaf positions between checks of the clock, and the fraction
+	// of the time limit kept back to unwind the search and to cover the
+	// thread being descheduled between checks
+
+	private static final int CLOCK_INTERVAL = 1024;
+	private static final int HEADROOM_DIVISOR = 10;
+
+	private final Board board;
+	private final CardStore store;
+	private final BoardTopology topology;
+	private final int[] contaminationDamage;
+	private final TranspositionTable table;
+	private final boolean ownsTable;
+	private long timeLimitNanos;
+	private long nodeLimit;
+
+	// Moves and their ordering scores for each ply. A move is encoded as
+	// handle * 32 + node
+
+	private int[][] moves, scores;
+
+	// State of the current search
+
+	private long deadline;
+	private boolean timedOut;
+	private long positions;
+	private int completedDepth;
+
+	// Creates an AlphaBetaSearch for the given Board with the default time
+	// limit and its own TranspositionTable
+
+	public AlphaBetaSearch(Board board) {
+		this(board, new TranspositionTable(), true);
+	}
+
+	// Creates an AlphaBetaSearch for the given Board with the default time
+	// limit that keeps its results in the given TranspositionTable, which
+	// other searches, on any thread, may use at the same time. The search
+	// does not age a table it is given: whoever shares the table calls
+	// TranspositionTable.newSearch once per move of the game
+
+	public AlphaBetaSearch(Board board, TranspositionTable table) {
+		this(board, table, false);
+	}
+
+	// Private constructor used by the public constructors
+
+	private AlphaBetaSearch(Board board, TranspositionTable table, boolean ownsTable) {
+		this.board = board;
+		this.table = table;
+		this.ownsTable = ownsTable;
+		this.store = board.getCardStore();
+		this.topology = board.getTopology();
+		this.contaminationDamage = new int[topology.getNodeCount() + 1];
+		Arrays.fill(contaminationDamage, AVERAGE_CONTAMINATION_DAMAGE);
+		this.moves = new int[MAX_DEPTH + 1][];
+		this.scores = new int[MAX_DEPTH + 1][];
+		setTimeLimit(DEFAULT_TIME_LIMIT_MILLIS);
+	}
+
+	// Sets the time each call to findMove may take, in milliseconds. The
+	// search stops a tenth of it early, so findMove returns within it
+
+	public void setTimeLimit(long millis) {
+		if (millis < 1) {
+			throw new IllegalArgumentException("Invalid: Time limit must be positive");
+		}
+		timeLimitNanos = millis * 1000000L;
+	}
+
+	// Sets the number of positions each call to findMove may evaluate, or 0
+	// to search until the time limit. While a node limit is set, the time
+	// limit is ignored
+
+	public void setNodeLimit(long positions) {
+		if (positions < 0) {
+			throw new IllegalArgumentException("Invalid: Node limit cannot be negative");
+		}
+		nodeLimit = positions;
+	}
+
+	// Returns the number of positions the most recent findMove evaluated
+
+	public long getPositionsEvaluated() {
+		return positions;
+	}
+
+	// Returns the TranspositionTable this search keeps its results in
+
+	public TranspositionTable getTranspositionTable() {
+		return table;
+	}
+
+	// Returns the depth in plies of the deepest search the most recent
+	// findMove completed
+
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	// Returns the best move for the given Player to make now, or null if the
+	// Player cannot place a Card. The opponent's hand is hidden, so the search
+	// deals them a random hand of the same size from the Cards they might
+	// hold (their hand and the Deck) and takes it back afterwards. The Board
+	// is left as it was
+
+	public Move findMove(Player player) {
+		deadline = System.nanoTime() + timeLimitNanos - timeLimitNanos / HEADROOM_DIVISOR;
+		timedOut = false;
+		positions = 0;
+		completedDepth = 0;
+		if (ownsTable) {
+			table.newSearch();
+		}
+		int mover = board.getPlayerIndex(player);
+		int opponent = 1 - mover;
+		List<Card> hand = (opponent == Board.HUMAN_INDEX ? board.getHumanPlayer() : board.getComputerPlayer()).getHand();
+		int[] realHand = new int[hand.size()];
+		for (int i = 0; i < realHand.length; i++) {
+			realHand[i] = hand.get(i).getHandle();
+		}
+		int[] dealt = unseenCards(realHand);
+		int[] owners = deal(dealt, realHand.length);
+		board.setHand(opponent, dealt, realHand.length);
+		try {
+			return searchRoot(mover, board.getFirstPlayer() != player);
+		} finally {
+			board.setHand(opponent, realHand, realHand.length);
+			for (int i = 0; i < realHand.length; i++) {
+				store.setOwnerIndex(dealt[i], owners[i]);
+			}
+		}
+	}
+
+	// Private helper does the iterative deepening of findMove for the Player
+	// with the given index
+
+	private Move searchRoot(int mover, boolean lastInTurn) {
+		int count = generateMoves(0, mover);
+		if (count == 0) {
+			return null;
+		}
+		int[] rootMoves = moves[0];
+		int best = rootMoves[0];
+
+		// Each ply fills a Node, so searching deeper than the number of empty
+		// Nodes (plus a turn end) only looks at passes
+		int usefulDepth = Math.min(MAX_DEPTH, Integer.bitCount(~board.getOccupiedMask() & Board.FULL_MASK) + 2);
+		for (int depth = 1; depth <= usefulDepth && !timedOut; depth++) {
+			int alpha = -INFINITY;
+			int bestAtDepth = -1;
+			for (int i = 0; i < count; i++) {
+				int move = rootMoves[i];
+				makeMove(move, lastInTurn);
+				int score = -search(depth - 1, 1, -INFINITY, -alpha, 1 - mover, !lastInTurn);
+				unmakeMove(lastInTurn);
+				if (timedOut) {
+					break;
+				}
+				if (score > alpha) {
+					alpha = score;
+					bestAtDepth = i;
+				}
+			}
+
+			// Keep this iteration's best move, even if the iteration was cut
+			// short, since the previous best move was searched first
+			if (bestAtDepth >= 0) {
+				best = rootMoves[bestAtDepth];
+				System.arraycopy(rootMoves, 0, rootMoves, 1, bestAtDepth);
+				rootMoves[0] = best;
+			}
+			if (!timedOut) {
+				completedDepth = depth;
+				if (alpha >= WIN_SCORE - MAX_DEPTH) {
+					break;
+				}
+			}
+		}
+		return new Move(best >>> 5, best & 31);
+	}
+
+	// Private helper searches the position after ply plies with the Player
+	// with the given index to move, returning its score from that Player's
+	// point of view. If lastInTurn is true, the turn ends after the move
+
+	private int search(int depth, int ply, int alpha, int beta, int mover, boolean lastInTurn) {
+		// Interior positions score every move in generateMoves, which costs
+		// far more than a leaf, so the clock is read at each of them
+		positions++;
+		if (nodeLimit > 0 ? positions > nodeLimit
+				: (depth > 0 || positions % CLOCK_INTERVAL == 0) && System.nanoTime() > deadline) {
+			timedOut = true;
+		}
+		if (timedOut) {
+			return 0;
+		}
+		int opponent = 1 - mover;
+		int moverHP = playerHP(mover);
+		int opponentHP = playerHP(opponent);
+		if (moverHP <= 0 || opponentHP <= 0) {
+			if (moverHP > 0) {
+				return WIN_SCORE - ply;
+			}
+			return opponentHP > 0 ? ply - WIN_SCORE : 0;
+		}
+		if (depth == 0) {
+			return evaluate(board, mover);
+		}
+
+		// Use a stored result that is deep enough to decide this position,
+		// and otherwise try the stored best move first
+		long key = board.getPositionKey() ^ Zobrist.sideKey(mover, lastInTurn);
+		long entry = table.probe(key);
+		int hashMove = -1;
+		if (entry != TranspositionTable.MISS) {
+			hashMove = TranspositionTable.getMove(entry);
+			if (TranspositionTable.getDepth(entry) >= depth) {
+				int score = fromTable(TranspositionTable.getScore(entry), ply);
+				int bound = TranspositionTable.getBound(entry);
+				if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+						|| (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+					return score;
+				}
+			}
+		}
+
+		int alphaBefore = alpha;
+		int best = -INFINITY;
+		int bestMove = -1;
+		int count = generateMoves(ply, mover);
+		if (count == 0) {
+
+			// The Player cannot place a Card and passes
+			if (lastInTurn) {
+				board.makeEndTurn(contaminationDamage);
+			}
+			best = -search(depth - 1, ply + 1, -beta, -alpha, opponent, !lastInTurn);
+			if (lastInTurn) {
+				board.unmakeEndTurn();
+			}
+		} else {
+			int[] plyMoves = moves[ply];
+			if (hashMove >= 0) {
+				moveToFront(plyMoves, count, hashMove);
+			}
+			for (int i = 0; i < count; i++) {
+				makeMove(plyMoves[i], lastInTurn);
+				int score = -search(depth - 1, ply + 1, -beta, -alpha, opponent, !lastInTurn);
+				unmakeMove(lastInTurn);
+				if (timedOut) {
+					return 0;
+				}
+				if (score > best) {
+					best = score;
+					bestMove = plyMoves[i];
+					if (score > alpha) {
+						alpha = score;
+						if (alpha >= beta) {
+							break;
+						}
+					}
+				}
+			}
+		}
+		if (timedOut) {
+			return 0;
+		}
+		int bound = best <= alphaBefore ? TranspositionTable.UPPER_BOUND
+				: best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+		table.store(key, toTable(best, ply), depth, bound, bestMove);
+		return best;
+	}
+
+	// Private helpers convert win and loss scores, which count plies from the
+	// root, to and from the table, which counts them from the stored position
+
+	private static int toTable(int score, int ply) {
+		if (score >= WIN_SCORE - 2 * MAX_DEPTH) {
+			return score + ply;
+		}
+		return score <= 2 * MAX_DEPTH - WIN_SCORE ? score - ply : score;
+	}
+
+	private static int fromTable(int score, int ply) {
+		if (score >= WIN_SCORE - 2 * MAX_DEPTH) {
+			return score - ply;
+		}
+		return score <= 2 * MAX_DEPTH - WIN_SCORE ? score + ply : score;
+	}
+
+	// Private helper moves the given move to the front of the first count
+	// moves, keeping the order of the others, if it is among them
+
+	private static void moveToFront(int[] plyMoves, int count, int move) {
+		for (int i = 0; i < count; i++) {
+			if (plyMoves[i] == move) {
+				System.arraycopy(plyMoves, 0, plyMoves, 1, i);
+				plyMoves[0] = move;
+				return;
+			}
+		}
+	}
+
+	// Scores the position on the given Board from the point of view of the
+	// Player with the given index: the difference in Player HP, plus the HP
+	// each Card will have left after the attacks it faces, minus the maximum
+	// HP of each Card those attacks will kill (which its owner will lose)
+
+	static int evaluate(Board board, int playerIndex) {
+		CardStore store = board.getCardStore();
+		int hP = board.getHumanPlayer().getHP() - board.getComputerPlayer().getHP();
+		int score = PLAYER_HP_WEIGHT * (playerIndex == Board.HUMAN_INDEX ? hP : -hP);
+		for (int remaining = board.getOccupiedMask(); remaining != 0; remaining &= remaining - 1) {
+			int node = Integer.numberOfTrailingZeros(remaining);
+			int card = board.getCardHandle(node);
+			int hPLeft = store.getCurrentHP(card) - board.getIncomingDamage(node);
+			int value = hPLeft > 0 ? hPLeft : -store.getMaxHP(card);
+			score += store.getOwnerIndex(card) == playerIndex ? value : -value;
+		}
+		return score;
+	}
+
+	// Private helper returns the handles of the Cards the opponent might
+	// hold: the given hand and the Deck
+
+	private int[] unseenCards(int[] hand) {
+		Deck deck = board.getDeck();
+		int[] unseen = Arrays.copyOf(hand, hand.length + deck.size());
+		for (int position = 0; position < deck.size(); position++) {
+			unseen[hand.length + position] = deck.getHandle(position);
+		}
+		return unseen;
+	}
+
+	// Private helper moves count Cards picked at random from the AI stream to
+	// the front of unseen with a partial Fisher-Yates shuffle, and returns
+	// their owners before they are dealt
+
+	private int[] deal(int[] unseen, int count) {
+		RandomGenerator random = board.getRandom().getAIStream();
+		int[] owners = new int[count];
+		for (int i = 0; i < count; i++) {
+			int j = i + random.nextInt(unseen.length - i);
+			int handle = unseen[j];
+			unseen[j] = unseen[i];
+			unseen[i] = handle;
+			owners[i] = store.getOwnerIndex(handle);
+		}
+		return owners;
+	}
+
+	// Private helper fills moves[ply] with every placement of a Card in the
+	// given Player's hand in an empty Node, best first by the hard greedy
+	// score, and returns their number
+
+	private int generateMoves(int ply, int playerIndex) {
+		if (board.isFull()) {
+			return 0;
+		}
+		Player player = playerIndex == Board.HUMAN_INDEX ? board.getHumanPlayer() : board.getComputerPlayer();
+		int handSize = player.getHand().size();
+		int capacity = handSize * topology.getNodeCount();
+		if (moves[ply] == null || moves[ply].length < capacity) {
+			moves[ply] = new int[Math.max(capacity, 32)];
+			scores[ply] = new int[Math.max(capacity, 32)];
+		}
+		int[] plyMoves = moves[ply];
+		int[] plyScores = scores[ply];
+		int count = 0;
+		for (int remaining = ~board.getOccupiedMask() & Board.FULL_MASK; remaining != 0; remaining &= remaining - 1) {
+			int node = Integer.numberOfTrailingZeros(remaining);
+			for (int i = 0; i < handSize; i++) {
+				int handle = player.getHand().get(i).getHandle();
+				int score = CardBattleAI.greedyScore(board, node, handle, playerIndex, true);
+
+				// Insert the move in order of score
+				int position = count++;
+				while (position > 0 && plyScores[position - 1] < score) {
+					plyMoves[position] = plyMoves[position - 1];
+					plyScores[position] = plyScores[position - 1];
+					position--;
+				}
+				plyMoves[position] = handle << 5 | node;
+				plyScores[position] = score;
+			}
+		}
+		return count;
+	}
+
+	// Private helpers make and take back a move, with the end of the turn if
+	// it is the last move of the turn
+
+	private void makeMove(int move, boolean lastInTurn) {
+		int node = move & 31;
+		board.makeMove(store.getCard(move >>> 5), node / 5, node % 5);
+		if (lastInTurn) {
+			board.makeEndTurn(contaminationDamage);
+		}
+	}
+
+	private void unmakeMove(boolean lastInTurn) {
+		if (lastInTurn) {
+			board.unmakeEndTurn();
+		}
+		board.unmakeMove();
+	}
+
+	// Private helper returns the HP of the Player with the given index
+
+	private int playerHP(int playerIndex) {
+		return (playerIndex == Board.HUMAN_INDEX ? board.getHumanPlayer() : board.getComputerPlayer()).getHP();
+	}
+}
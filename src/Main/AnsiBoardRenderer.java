@@ -0,0 +1,173 @@
+package Main;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/*
+ * This class draws a Board on an ANSI terminal by repainting only what changed. The first frame clears the
+ * screen, draws the whole board at the top and limits scrolling to the lines below it, so the messages of the
+ * game scroll underneath a board that stays in place. Every later frame is compared with the last one drawn,
+ * and only the Node cells, HP lines and Player totals that differ are rewritten, using cursor-positioning
+ * sequences. The terminal must be at least ConsoleBoardRenderer.LINE_WIDTH columns wide.
+ */
+
+public class AnsiBoardRenderer {
+
+	private static final String CSI = "\u001b[";
+	private static final String SAVE_CURSOR = "\u001b7";
+	private static final String RESTORE_CURSOR = "\u001b8";
+
+	// Width of a Node cell plus its divider
+	private static final int CELL_STRIDE = ConsoleBoardRenderer.CELL_WIDTH + 1;
+
+	private final ConsoleBoardRenderer renderer;
+	private final StringBuilder output;
+
+	// Text of the last frame drawn and the offset at which each of its lines
+	// starts (with one extra entry for the end of the frame)
+	private final StringBuilder lastFrame;
+	private int[] lastLineStarts;
+	private int lastLineCount;
+	private int[] lineStarts;
+
+	// Number of characters sent to the terminal so far
+	private long charactersWritten;
+
+	// Creates an AnsiBoardRenderer that draws the given Board
+
+	public AnsiBoardRenderer(Board board) {
+		this.renderer = new ConsoleBoardRenderer(board);
+		this.output = new StringBuilder(ConsoleBoardRenderer.LINE_WIDTH * 60);
+		this.lastFrame = new StringBuilder(ConsoleBoardRenderer.LINE_WIDTH * 60);
+		this.lastLineStarts = new int[64];
+		this.lineStarts = new int[64];
+		this.lastLineCount = -1;
+	}
+
+	// Draws the Board to the given stream, repainting only what changed since
+	// the last frame, then flushes the stream
+
+	public void print(PrintStream out) {
+		StringBuilder frame = renderer.render();
+		int lineCount = findLineStarts(frame);
+		output.setLength(0);
+		if (lineCount != lastLineCount) {
+			appendFullFrame(frame, lineCount);
+		} else {
+			output.append(SAVE_CURSOR);
+			for (int line = 0; line < lineCount; line++) {
+				appendChangedLine(frame, line);
+			}
+			output.append(RESTORE_CURSOR);
+		}
+
+		// Remember this frame for the next comparison
+		lastFrame.setLength(0);
+		lastFrame.append(frame);
+		int[] swap = lastLineStarts;
+		lastLineStarts = lineStarts;
+		lineStarts = swap;
+		lastLineCount = lineCount;
+
+		out.append(output);
+		out.flush();
+		charactersWritten += output.length();
+	}
+
+	// Makes the next frame repaint the whole board, for example after the
+	// screen was cleared by something else
+
+	public void invalidate() {
+		lastLineCount = -1;
+	}
+
+	// Gives the whole terminal back to normal scrolling and moves the cursor
+	// to the bottom of the screen
+
+	public void finish(PrintStream out) {
+		out.append(CSI).append("r").append(CSI).append("999;1H");
+		out.flush();
+		lastLineCount = -1;
+	}
+
+	// Returns the number of characters sent to the terminal so far
+
+	public long getCharactersWritten() {
+		return charactersWritten;
+	}
+
+	// Private helper clears the screen, draws the whole frame at the top and
+	// makes the lines below it the scrolling region
+
+	private void appendFullFrame(StringBuilder frame, int lineCount) {
+		int firstFreeLine = lineCount + 2;
+		output.append(CSI).append("r");
+		output.append(CSI).append("2J").append(CSI).append("H");
+		output.append(frame);
+		output.append(CSI).append(firstFreeLine).append('r');
+		output.append(CSI).append(firstFreeLine).append(";1H");
+	}
+
+	// Private helper repaints the given line of the frame where it differs
+	// from the last frame. Lines of five Node cells are compared cell by cell;
+	// any other line is rewritten whole
+
+	private void appendChangedLine(StringBuilder frame, int line) {
+		int start = lineStarts[line];
+		int length = lineStarts[line + 1] - 1 - start;
+		int lastStart = lastLineStarts[line];
+		int lastLength = lastLineStarts[line + 1] - 1 - lastStart;
+		if (length == lastLength && regionEquals(frame, start, lastStart, length)) {
+			return;
+		}
+		if (length == lastLength && length == ConsoleBoardRenderer.LINE_WIDTH && frame.charAt(start) == '|') {
+			for (int cell = 1; cell < length; cell += CELL_STRIDE) {
+				if (!regionEquals(frame, start + cell, lastStart + cell, ConsoleBoardRenderer.CELL_WIDTH)) {
+					moveCursor(line, cell);
+					output.append(frame, start + cell, start + cell + ConsoleBoardRenderer.CELL_WIDTH);
+				}
+			}
+		} else {
+			moveCursor(line, 0);
+			output.append(frame, start, start + length).append(CSI).append('K');
+		}
+	}
+
+	// Private helper appends the sequence that moves the cursor to the given
+	// line and column of the board (both counted from 0)
+
+	private void moveCursor(int line, int column) {
+		output.append(CSI).append(line + 1).append(';').append(column + 1).append('H');
+	}
+
+	// Private helper returns true if the given number of characters of the
+	// frame starting at start equal those of the last frame starting at
+	// lastStart
+
+	private boolean regionEquals(StringBuilder frame, int start, int lastStart, int length) {
+		for (int index = 0; index < length; index++) {
+			if (frame.charAt(start + index) != lastFrame.charAt(lastStart + index)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Private helper records the offset at which each line of the frame
+	// starts, plus the end of the frame, and returns the number of lines
+
+	private int findLineStarts(StringBuilder frame) {
+		int lineCount = 0;
+		lineStarts[0] = 0;
+		for (int index = 0; index < frame.length(); index++) {
+			if (frame.charAt(index) == '\n') {
+				lineCount++;
+				if (lineCount + 1 > lineStarts.length) {
+					lineStarts = Arrays.copyOf(lineStarts, lineStarts.length * 2);
+					lastLineStarts = Arrays.copyOf(lastLineStarts, lineStarts.length);
+				}
+				lineStarts[lineCount] = index + 1;
+			}
+		}
+		return lineCount;
+	}
+}
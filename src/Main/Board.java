@@ -1,4 +1,6 @@
 package Main;
+import java.util.*;
+
 /*
  * This class represents a board on which the game is played. The Board consists of Nodes arranged in 
  * a 5x5 square, which all begin empty. Board keeps track of the game status including the Players 
@@ -12,13 +14,102 @@ public class Board {
 
 	public static final int CARDS_IN_DECK = 100;
 
+	// Bitboard constants. Bit (row * 5 + column) of a mask represents the Node
+	// at that row and column
+
+	public static final int FULL_MASK = (1 << 25) - 1;
+	public static final int HUMAN_INDEX = 0;
+	public static final int COMPUTER_INDEX = 1;
+
+	// Number of turns a Card stays contaminated after a toxic attack
+
+	public static final int CONTAMINATION_TURNS = 5;
+	private static final int LEFT_COLUMN_MASK = 0x108421;
+	private static final int RIGHT_COLUMN_MASK = LEFT_COLUMN_MASK << 4;
+
 	private Player human, computer;
 	private Deck deck, discardPile;
 	private int turn;
 	private Node[][] board;
+	private BoardTopology topology;
+	private CardStore cardStore;
+
+	// Handle of the Card in each Node (-1 if empty), plus an always-empty
+	// entry for the topology's edge sentinel
+
+	private int[] cells;
 	private CardGenerator cardGenerator;
 	private String difficulty;
 
+	// Index of the Player who moves first each turn (the loser of the dice
+	// roll)
+
+	private int firstPlayerIndex;
+
+	// Bitboards kept in sync with the Nodes by placeCard, removeCard,
+	// generateZoneBonus and setContaminatedTurnsLeft
+
+	private int occupiedMask;
+	private int[] ownerMasks;
+	private int hotZoneMask, coldZoneMask, contaminatedMask;
+
+	// The empty Nodes as a set: the first emptyCount entries of emptyNodes,
+	// in no particular order, with the index of each Node in emptyNodes.
+	// Nodes are added and removed by swapping them across emptyCount
+
+	private int[] emptyNodes, emptyIndex;
+	private int emptyCount;
+
+	// Random number generators of the current game
+
+	private GameRandom random;
+
+	// Undo journal for makeMove/makeEndTurn. Holds primitive entries (see
+	// undoFrame) and the journal index at which each frame starts
+
+	private static final int MOVE_FRAME = 0;
+	private static final int END_TURN_FRAME = 1;
+	private static final int UNDO_HP = 0;
+	private static final int UNDO_AP = 1;
+	private static final int UNDO_CONTAMINATION = 2;
+	private static final int UNDO_PLACE = 3;
+	private static final int UNDO_REMOVE = 4;
+	private static final int UNDO_HAND = 5;
+	private static final int UNDO_PLAYER_DAMAGE = 6;
+	private static final int UNDO_TURN = 7;
+
+	private int[] journal, frameStarts, frameKinds;
+	private int journalSize, frameCount;
+	private boolean recording;
+
+	// Zobrist key of the current position (see Zobrist), updated whenever a
+	// Card, Zone, hand or Player's HP changes, and the Node of each Card on
+	// the Board by handle (-1 if the Card is not on the Board)
+
+	private long positionKey;
+	private int[] cardNodes;
+
+	// Renderer used by toString, created on first use
+
+	private ConsoleBoardRenderer renderer;
+
+	// Damage each Node will take from adjacent enemies at the end of the turn,
+	// and the number of adjacent toxic enemies in earlier and later Nodes,
+	// updated whenever a Card is placed, removed or has its AP changed
+
+	private int[] incomingDamage;
+	private int[] earlyToxicExposure, lateToxicExposure;
+
+	// Contamination damage dealt to each Node by the most recent endTurn, and
+	// the bitboard of Nodes that took any
+
+	private int[] contaminationDamage;
+	private int contaminationDamageMask;
+
+	// Recorder that journals the moves of the current game, if any
+
+	private GameRecorder recorder;
+
 	// Explicit private default constructor that prevents an invalid Board
 	// from being created
 
@@ -26,15 +117,37 @@ public class Board {
 	private Board() {
 	}
 
-	// Main constructor used for creating Board objects
+	// Main constructor used for creating Board objects. The Board's random
+	// numbers are seeded from the system's entropy
 
 	public Board(Player human, Player computer) {
+		this(human, computer, new SplittableRandom().nextLong());
+	}
+
+	// Creates a Board whose Cards and random events are fully determined by
+	// the given seed
+
+	public Board(Player human, Player computer, long seed) {
 		this.human = human;
 		this.computer = computer;
 		this.turn = 1;
 		this.difficulty = "";
+		this.ownerMasks = new int[2];
+		this.random = new GameRandom(seed);
+		this.journal = new int[256];
+		this.frameStarts = new int[16];
+		this.frameKinds = new int[16];
+
+		// Register the Players so that their owner indices in the CardStore
+		// match HUMAN_INDEX and COMPUTER_INDEX
+		this.cardStore = new CardStore(CARDS_IN_DECK);
+		cardStore.playerIndex(human);
+		cardStore.playerIndex(computer);
 		initializeBoard();
 		initializeDecks();
+		this.cardNodes = new int[cardStore.size()];
+		Arrays.fill(cardNodes, -1);
+		this.positionKey = computePositionKey();
 	}
 
 	// Returns the human Player of this Board
@@ -59,7 +172,35 @@ public class Board {
 	// the Node is empty
 
 	public Card getCard(int row, int column) {
-		return board[row][column].getCard();
+		int handle = cells[row * 5 + column];
+		return handle < 0 ? null : cardStore.getCard(handle);
+	}
+
+	// Returns the handle of the Card placed in a given Node on this Board.
+	// Returns -1 if the Node is empty
+
+	public int getCardHandle(int row, int column) {
+		return cells[row * 5 + column];
+	}
+
+	// Returns the handle of the Card placed in the given Node number (see
+	// BoardTopology). Returns -1 if the Node is empty or is the edge sentinel
+
+	public int getCardHandle(int node) {
+		return cells[node];
+	}
+
+	// Returns the topology describing which Nodes of this Board are adjacent
+
+	public BoardTopology getTopology() {
+		return topology;
+	}
+
+	// Returns the CardStore that holds the stats of every Card in this Board's
+	// game
+
+	public CardStore getCardStore() {
+		return cardStore;
 	}
 
 	// Returns the Zone bonus that is currently on the given Node. Returns null
@@ -73,14 +214,116 @@ public class Board {
 	// in)
 
 	public boolean isFull() {
-	    for (int i = 0; i < 5; i++) {
-	        for (int j = 0; j < 5; j++) {
-	            if (getCard(i, j) == null) {
-	                return false;
-	            }
-	        }
-	    }
-		return true;
+		return emptyCount == 0;
+	}
+
+	// Returns the number of empty Nodes
+
+	public int getEmptyCount() {
+		return emptyCount;
+	}
+
+	// Returns the empty Node at the given index, from 0 to getEmptyCount()
+	// - 1. The order of the empty Nodes changes as Cards are placed and
+	// removed, but making and taking back moves restores it, so a random
+	// index always picks a uniformly random empty Node
+
+	public int getEmptyNode(int index) {
+		if (index < 0 || index >= emptyCount) {
+			throw new IllegalArgumentException("Invalid: Empty Node index out of range");
+		}
+		return emptyNodes[index];
+	}
+
+	// Returns the bitboard of Nodes that currently hold a Card
+
+	public int getOccupiedMask() {
+		return occupiedMask;
+	}
+
+	// Returns the bitboard of Nodes holding a Card owned by the given Player
+
+	public int getOwnerMask(Player player) {
+		int index = getPlayerIndex(player);
+		return index < 0 ? 0 : ownerMasks[index];
+	}
+
+	// Returns the bitboard of Nodes that have a Hot Zone bonus
+
+	public int getHotZoneMask() {
+		return hotZoneMask;
+	}
+
+	// Returns the bitboard of Nodes that have a Cold Zone bonus
+
+	public int getColdZoneMask() {
+		return coldZoneMask;
+	}
+
+	// Returns the bitboard of Nodes holding a contaminated Card
+
+	public int getContaminatedMask() {
+		return contaminatedMask;
+	}
+
+	// Returns the bitboard of occupied Nodes adjacent to the given Node whose
+	// Cards are owned by a different Player than the Card in the given Node
+
+	public int getEnemyNeighborMask(int row, int column) {
+		Card card = getCard(row, column);
+		if (card == null) {
+			return 0;
+		}
+		int enemies = occupiedMask & ~getOwnerMask(card.getOwner());
+		return topology.getNeighborMask(row * 5 + column) & enemies;
+	}
+
+	// Returns the index of the given Player on this Board (HUMAN_INDEX or
+	// COMPUTER_INDEX), or -1 if the Player is not playing on this Board
+
+	public int getPlayerIndex(Player player) {
+		if (player == human) {
+			return HUMAN_INDEX;
+		}
+		if (player == computer) {
+			return COMPUTER_INDEX;
+		}
+		return -1;
+	}
+
+	// Returns the bitboard of every Node directly above, below, left or right
+	// of any Node in the given bitboard
+
+	public static int neighborMask(int mask) {
+		return aboveMask(mask) | belowMask(mask) | leftMask(mask) | rightMask(mask);
+	}
+
+	// Returns the bitboard of Nodes directly above the Nodes in the given
+	// bitboard
+
+	public static int aboveMask(int mask) {
+		return mask >>> 5;
+	}
+
+	// Returns the bitboard of Nodes directly below the Nodes in the given
+	// bitboard
+
+	public static int belowMask(int mask) {
+		return (mask << 5) & FULL_MASK;
+	}
+
+	// Returns the bitboard of Nodes directly to the left of the Nodes in the
+	// given bitboard
+
+	public static int leftMask(int mask) {
+		return (mask & ~LEFT_COLUMN_MASK) >>> 1;
+	}
+
+	// Returns the bitboard of Nodes directly to the right of the Nodes in the
+	// given bitboard
+
+	public static int rightMask(int mask) {
+		return (mask & ~RIGHT_COLUMN_MASK) << 1;
 	}
 
 	// Returns the current difficulty of this Board
@@ -95,10 +338,65 @@ public class Board {
 		this.difficulty = difficulty;
 	}
 
+	// Returns the Player who moves first each turn
+
+	public Player getFirstPlayer() {
+		return getPlayer(firstPlayerIndex);
+	}
+
+	// Sets the Player who moves first each turn
+
+	public void setFirstPlayer(Player player) {
+		int index = getPlayerIndex(player);
+		if (index < 0) {
+			throw new IllegalArgumentException("Invalid: Player is not playing on this Board");
+		}
+		firstPlayerIndex = index;
+	}
+
 	// Creates a Zone bonus on a given Node on the board
 
 	public void generateZoneBonus(Zone zone, int row, int column) {
 	    board[row][column].setZoneBonus(zone);
+	    int node = row * 5 + column;
+	    int bit = 1 << node;
+	    if ((hotZoneMask & bit) != 0) {
+	        positionKey ^= Zobrist.hotZoneKey(node);
+	    }
+	    if ((coldZoneMask & bit) != 0) {
+	        positionKey ^= Zobrist.coldZoneKey(node);
+	    }
+	    hotZoneMask &= ~bit;
+	    coldZoneMask &= ~bit;
+	    if (zone != null && zone.getType().equalsIgnoreCase("Hot")) {
+	        hotZoneMask |= bit;
+	        positionKey ^= Zobrist.hotZoneKey(node);
+	    } else if (zone != null && zone.getType().equalsIgnoreCase("Cold")) {
+	        coldZoneMask |= bit;
+	        positionKey ^= Zobrist.coldZoneKey(node);
+	    }
+	}
+
+	// Sets the number of contaminated turns left on the Card in a given Node
+	// and keeps the contamination bitboard in sync
+
+	public void setContaminatedTurnsLeft(int row, int column, int numberOfTurns) {
+		int handle = getCardHandle(row, column);
+		if (handle < 0) {
+			throw new IllegalArgumentException("Invalid: Node is empty");
+		}
+		if (recording) {
+			record(row * 5 + column, cardStore.getContaminatedTurnsLeft(handle), UNDO_CONTAMINATION);
+		}
+		toggleCardKey(handle);
+		cardStore.setContaminatedTurnsLeft(handle, numberOfTurns);
+		toggleCardKey(handle);
+		int bit = 1 << (row * 5 + column);
+		if (numberOfTurns > 0) {
+			contaminatedMask |= bit;
+		} else {
+			contaminatedMask &= ~bit;
+		}
 	}
 
 	// Places a card in a Node on the Board. Returns true if successful,
@@ -106,10 +404,34 @@ public class Board {
 
 	public boolean placeCard(Card card, int row, int column) {
 		if (getCard(row, column) == null) {
-			board[row][column].setCurrentCard(card);
-			if (!card.getOwner().getHand().remove(card)) {
+			if (card.getStore() != cardStore) {
+				throw new IllegalArgumentException("Invalid: Card does not belong to this Board");
+			}
+			int ownerIndex = getPlayerIndex(card.getOwner());
+			if (ownerIndex < 0) {
+				throw new IllegalArgumentException("Invalid: Card is not owned by a Player on this Board");
+			}
+			List<Card> hand = card.getOwner().getHand();
+			int handIndex = hand.indexOf(card);
+			if (handIndex < 0) {
 				throw new IllegalArgumentException("Invalid: Card is not in hand");
 			}
+			hand.remove(handIndex);
+			int handle = card.getHandle();
+			if (recorder != null && !recording) {
+				recorder.recordPlace(handle, row * 5 + column);
+			}
+			positionKey ^= Zobrist.handKey(ownerIndex, handle);
+			if (recording) {
+				record(ownerIndex, handIndex, handle, UNDO_HAND);
+				record(handle, cardStore.getCurrentHP(handle), UNDO_HP);
+				record(handle, cardStore.getCurrentAP(handle, CardStore.UPPER),
+						cardStore.getCurrentAP(handle, CardStore.LOWER), cardStore.getCurrentAP(handle, CardStore.LEFT),
+						cardStore.getCurrentAP(handle, CardStore.RIGHT), UNDO_AP);
+				record(row * 5 + column, emptyIndex[row * 5 + column], UNDO_PLACE);
+			}
+			board[row][column].applyZoneBonus(card);
+			occupy(row * 5 + column, handle);
 			return true;
 		}
 		return false;
@@ -123,8 +445,12 @@ public class Board {
 		if (card == null) {
 			throw new IllegalArgumentException("Invalid: Node is empty");
 		}
+		if (recording) {
+			record(row * 5 + column, card.getHandle(), UNDO_REMOVE);
+		}
 		discardPile.addCard(card);
-		return board[row][column].removeCard();
+		vacate(row * 5 + column);
+		return card;
 	}
 
 	// Draws a card from this Board's Deck into a Player's hand
@@ -132,12 +458,25 @@ public class Board {
 	public Card drawCard(Player player) {
 		Card card = deck.drawCard();
 		if (player != null) {
+			if (recorder != null && !recording) {
+				recorder.recordDraw(getPlayerIndex(player));
+			}
 			card.setOwner(player);
 			player.getHand().add(card);
+			int playerIndex = getPlayerIndex(player);
+			if (playerIndex >= 0) {
+				positionKey ^= Zobrist.handKey(playerIndex, card.getHandle());
+			}
 		}
 		return card;
 	}
 
+	// Returns the number of Cards left in this Board's Deck
+
+	public int getDeckSize() {
+		return deck.size();
+	}
+
 	// Adds a card to this Board's Deck
 
 	public void addCardToDeck(Card card) {
@@ -147,301 +486,724 @@ public class Board {
 	// Increments the turn counter by 1
 
 	public void incrementTurn() {
+		if (recording) {
+			record(UNDO_TURN);
+		}
 		turn++;
 	}
 
-	// Brings the board back to a clean state
+	// Ends the turn: every Card deals its AP as damage to adjacent enemy Cards
+	// (contaminating them if it is toxic), contaminated Cards take damage, dead
+	// Cards are removed and their owners lose HP, and the turn counter is
+	// incremented
 
-	public void resetBoard() {
+	public void endTurn() {
+		resolveTurn(null);
+	}
 
-		// Remove all Cards and zone bonuses from the board
-	    
-	    for (int i = 0; i < 5; i++) {
-	        for (int j = 0; j < 5; j++) {
-	            if (getCard(i, j) != null) {
-	                removeCard(i, j);
-	            }
-	            generateZoneBonus(null, i, j);
-	        }
-	    }
+	// Ends the turn like endTurn, but deals the given contamination damage to
+	// each Node (indexed by Node number) instead of rolling it. Used to replay
+	// a turn exactly
+
+	public void endTurn(int[] contaminationDamage) {
+		resolveTurn(contaminationDamage);
+	}
+
+	// Returns the contamination damage dealt to the Card in the given Node by
+	// the most recent endTurn
+
+	public int getContaminationDamage(int node) {
+		return contaminationDamage[node];
+	}
+
+	// Returns the bitboard of Nodes whose Cards took contamination damage in
+	// the most recent endTurn
+
+	public int getContaminationDamageMask() {
+		return contaminationDamageMask;
+	}
+
+	// Returns the recorder that journals the moves of the current game, or
+	// null if none
+
+	public GameRecorder getRecorder() {
+		return recorder;
+	}
+
+	// Sets the recorder that journals the moves of the current game, or turns
+	// journaling off if null. Moves made with makeMove and makeEndTurn are
+	// never journaled
+
+	public void setRecorder(GameRecorder recorder) {
+		this.recorder = recorder;
+	}
 
-		// Return all cards from Players' hands and the discard pile
+	// Private helper does the work of endTurn, rolling contamination damage if
+	// rolls is null and reading it from rolls otherwise
+
+	private void resolveTurn(int[] rolls) {
+
+		// Resolve each occupied Node, in row-major order, from its cached
+		// incoming damage and toxic exposure, collecting dead monsters
+		int dead = 0;
+		Arrays.fill(contaminationDamage, 0);
+		contaminationDamageMask = 0;
+		for (int remaining = occupiedMask; remaining != 0; remaining &= remaining - 1) {
+			int node = Integer.numberOfTrailingZeros(remaining);
+			int card = cells[node];
+			int hP = cardStore.getCurrentHP(card) - incomingDamage[node];
+			int oldTurnsLeft = cardStore.getContaminatedTurnsLeft(card);
+			int turnsLeft = oldTurnsLeft;
+
+			// Toxic enemies in earlier Nodes contaminate this Card before its
+			// contamination damage is dealt, later ones after it
+			if (earlyToxicExposure[node] > 0) {
+				turnsLeft = CONTAMINATION_TURNS;
+			}
+			if (turnsLeft > 0) {
+				int damage = rolls == null ? random.getContaminationStream().nextInt(5) + 3 : rolls[node];
+				contaminationDamage[node] = damage;
+				contaminationDamageMask |= 1 << node;
+				hP -= damage;
+				turnsLeft--;
+			}
+			if (lateToxicExposure[node] > 0) {
+				turnsLeft = CONTAMINATION_TURNS;
+			}
 
-		for (Card card : getHumanPlayer().getHand()) {
-			addCardToDeck(card);
+			if (hP != cardStore.getCurrentHP(card)) {
+				setCardHP(card, hP);
+			}
+			if (turnsLeft != oldTurnsLeft) {
+				setContaminatedTurnsLeft(node / 5, node % 5, turnsLeft);
+			}
+			if (hP <= 0) {
+				dead |= 1 << node;
+			}
 		}
-		for (Card card : getComputerPlayer().getHand()) {
-			addCardToDeck(card);
+
+		// After all damage is dealt across the board, remove any dead monsters
+		// and apply the proper damage to their owners
+		for (int remaining = dead; remaining != 0; remaining &= remaining - 1) {
+			int node = Integer.numberOfTrailingZeros(remaining);
+			int card = cells[node];
+			damagePlayer(cardStore.getOwnerIndex(card), cardStore.getMaxHP(card));
+			removeCard(node / 5, node % 5);
 		}
-		while (!discardPile.isEmpty()) {
-			addCardToDeck(discardPile.drawCard());
+
+		incrementTurn();
+		if (recorder != null && !recording) {
+			recorder.recordEndTurn(this);
 		}
+	}
 
-		// Reset the Deck, Players' HP and hands, and reset the turn counter
+	// Adds the given amounts to the HP and to each side's AP of the Card in a
+	// given Node, keeping the position key in sync and recording the change if
+	// a move is being made
 
-		deck.reset();
-		human.reset();
-		computer.reset();
-		turn = 1;
+	public void boostCard(int row, int column, int hP, int upperAP, int lowerAP, int leftAP, int rightAP) {
+		int handle = getCardHandle(row, column);
+		if (handle < 0) {
+			throw new IllegalArgumentException("Invalid: Node is empty");
+		}
+		setCardHP(handle, cardStore.getCurrentHP(handle) + hP);
+		setCardAP(handle, cardStore.getCurrentAP(handle, CardStore.UPPER) + upperAP,
+				cardStore.getCurrentAP(handle, CardStore.LOWER) + lowerAP,
+				cardStore.getCurrentAP(handle, CardStore.LEFT) + leftAP,
+				cardStore.getCurrentAP(handle, CardStore.RIGHT) + rightAP);
+	}
 
+	// Returns the total damage the Card in the given Node will take from
+	// adjacent enemy Cards when the turn ends (not counting contamination)
+
+	public int getIncomingDamage(int node) {
+		return incomingDamage[node];
 	}
 
-	// Initializes the Board deck with a given number of Cards and creates the discard pile
+	// Returns the 64-bit Zobrist key of the current position: the Cards on the
+	// Board and their stats, the Zone bonuses, the Cards in each hand and each
+	// Player's HP. The turn number, Deck and discard pile are not included
 
-	private void initializeDecks() {
-		this.deck = new Deck();
-		this.discardPile = new Deck();
-		this.cardGenerator = new CardGenerator();
-		for (int cardNumber = 0; cardNumber < CARDS_IN_DECK; cardNumber++) {
-			addCardToDeck(cardGenerator.generateRandomCard());
+	public long getPositionKey() {
+		return positionKey;
+	}
+
+	// Computes the position key from scratch. Always equal to getPositionKey
+	// as long as the Board's state is only changed through the Board
+
+	public long computePositionKey() {
+		long key = Zobrist.playerKey(HUMAN_INDEX, human.getHP()) ^ Zobrist.playerKey(COMPUTER_INDEX, computer.getHP());
+		for (int node = 0; node < 25; node++) {
+			int handle = getCardHandle(node / 5, node % 5);
+			if (handle >= 0) {
+				key ^= Zobrist.cardKey(node, cardStore, handle);
+			}
+			if ((hotZoneMask & (1 << node)) != 0) {
+				key ^= Zobrist.hotZoneKey(node);
+			}
+			if ((coldZoneMask & (1 << node)) != 0) {
+				key ^= Zobrist.coldZoneKey(node);
+			}
 		}
+		for (Card card : human.getHand()) {
+			key ^= Zobrist.handKey(HUMAN_INDEX, card.getHandle());
+		}
+		for (Card card : computer.getHand()) {
+			key ^= Zobrist.handKey(COMPUTER_INDEX, card.getHandle());
+		}
+		return key;
 	}
-	
-	private void initializeBoard() {
-		board = new Node[5][5];
-		for (int i = 0; i < 5; i++) {
-		    for (int j = 0; j < 5; j++) {
-		        board[i][j] = new Node();
-		    }
+
+	// Places a Card like placeCard, recording everything it changes so that
+	// unmakeMove can take the move back. Returns true if successful, false if
+	// the Node is occupied
+
+	public boolean makeMove(Card card, int row, int column) {
+		beginFrame(MOVE_FRAME);
+		try {
+			return placeCard(card, row, column);
+		} finally {
+			recording = false;
 		}
 	}
 
-	// Returns a String representation of the current status of the board
+	// Takes back the most recent makeMove, restoring the Card to its place in
+	// its owner's hand and undoing any Zone bonus
 
-	public String toString() {
-		String s = padString("Turn: " + turn, 131) + "\n";
-		String humanHP = human.toString();
-		String computerHP = computer.toString();
-		s += humanHP;
-		int spacing = 131 - (humanHP.length() + computerHP.length());
-		s += padString(" ", spacing);
-		s += computerHP;
-		s += "\n\n" + border();
-		
-		for (int row = 0; row < 5; row++) {
-			s += firstLine(row);
-			s += zoneLine(row);
-			s += monsterNameLine(row);
-			s += hPLine(row);
-			s += middleLine(row);
-			s += spacerLine();
-			s += monsterOwnerLine(row);
-			s += zoneLine(row);
-			s += lastLine(row);
-			s += border();
-		}
-		return s;
-	}
-
-	// Private helper method for toString() displays a border between card slots
-
-	private String border() {
-		String border = "\n";
-		for (int dashNumber = 0; dashNumber < 131; dashNumber++) {
-			border = "-" + border;
-		}
-		return border;
-	}
-
-	// Private helper method for toString() displays a line that describes the
-	// Zone type of a Node if applicable
-
-	private String zoneLine(int row) {
-		String zoneLine = "|";
-		for (int column = 0; column < 5; column++) {
-			Zone zone = getZone(row, column);
-			if (zone != null) {
-				zoneLine += padString("* " + zone.getType().toUpperCase() + " ZONE *", 25) + "|";
-			} else {
-				zoneLine += spacerBox();
-			}
+	public void unmakeMove() {
+		undoFrame(MOVE_FRAME);
+	}
+
+	// Ends the turn like endTurn, recording everything it changes so that
+	// unmakeEndTurn can take it back
+
+	public void makeEndTurn() {
+		beginFrame(END_TURN_FRAME);
+		try {
+			endTurn();
+		} finally {
+			recording = false;
 		}
-		zoneLine += "\n";
-		return zoneLine;
 	}
 
-	// Private helper method for toString() displays a line with only spaces and
-	// Node dividers (|)
+	// Ends the turn like endTurn(contaminationDamage), recording everything it
+	// changes so that unmakeEndTurn can take it back. Searches use this to
+	// look ahead without drawing from the game's random streams
 
-	private String spacerLine() {
-		String spacer = "|\n";
-		for (int column = 0; column < 5; column++) {
-			spacer = padString(" ", 25) + spacer;
-			spacer = "|" + spacer;
+	public void makeEndTurn(int[] contaminationDamage) {
+		beginFrame(END_TURN_FRAME);
+		try {
+			resolveTurn(contaminationDamage);
+		} finally {
+			recording = false;
 		}
-		return spacer;
 	}
 
-	// Private helper method for toString() displays one Node worth of spaces
-	// followed by a Node divider (|)
+	// Takes back the most recent makeEndTurn, restoring HP, contamination,
+	// removed Cards, Player HP and the turn counter
 
-	private String spacerBox() {
-		String spacer = "";
-		spacer += padString(" ", 25);
-		spacer += "|";
-		return spacer;
+	public void unmakeEndTurn() {
+		undoFrame(END_TURN_FRAME);
 	}
 
-	// Private helper method for toString() displays upper AP of each Node's
-	// current card if applicable
+	// Takes back makeMove and makeEndTurn calls, newest first, until only the
+	// given number of them remain
 
-	private String firstLine(int row) {
-		String top = "|";
-		for (int column = 0; column < 5; column++) {
-			Card card = getCard(row, column);
-			if (card == null) {
-				top += spacerBox();
-			} else {
-				top += padString("" + card.getCurrentUpperAP(), 25);
-				top += "|";
-			}
+	public void unmakeTo(int depth) {
+		if (depth < 0 || depth > frameCount) {
+			throw new IllegalArgumentException("Invalid: Journal depth out of range");
+		}
+		while (frameCount > depth) {
+			undoFrame(frameKinds[frameCount - 1]);
 		}
-		top += "\n";
-		return top;
 	}
 
-	// Private helper method for toString() displays lower AP of each Node's
-	// current card if applicable
+	// Returns the number of makeMove and makeEndTurn calls that have not been
+	// taken back
 
-	private String lastLine(int row) {
-		String bottom = "|";
-		for (int column = 0; column < 5; column++) {
-			Card card = getCard(row, column);
-			if (card == null) {
-				bottom += spacerBox();
-			} else {
-				bottom += padString("" + card.getCurrentLowerAP(), 25);
-				bottom += "|";
-			}
+	public int getJournalDepth() {
+		return frameCount;
+	}
+
+	// Private helper sets the current HP of a Card, recording the old value if
+	// a move is being made
+
+	private void setCardHP(int handle, int hP) {
+		if (recording) {
+			record(handle, cardStore.getCurrentHP(handle), UNDO_HP);
 		}
-		bottom += "\n";
-		return bottom;
+		toggleCardKey(handle);
+		cardStore.setCurrentHP(handle, hP);
+		toggleCardKey(handle);
 	}
 
-	// Private helper method for toString() displays the monster name for each
-	// Node's current Card if applicable
+	// Private helper sets the current AP of a Card, recording the old values if
+	// a move is being made and keeping the incoming damage of its enemies in
+	// sync if the Card is on the Board
 
-	private String monsterNameLine(int row) {
-		String mNL = "|";
-		for (int column = 0; column < 5; column++) {
-			Card card = getCard(row, column);
-			if (card == null) {
-				mNL += spacerBox();
-			} else {
-				mNL += padString(card.getName(), 25);
-				mNL += "|";
-			}
+	private void setCardAP(int handle, int upperAP, int lowerAP, int leftAP, int rightAP) {
+		if (recording) {
+			record(handle, cardStore.getCurrentAP(handle, CardStore.UPPER),
+					cardStore.getCurrentAP(handle, CardStore.LOWER), cardStore.getCurrentAP(handle, CardStore.LEFT),
+					cardStore.getCurrentAP(handle, CardStore.RIGHT), UNDO_AP);
+		}
+		int node = cardNodes[handle];
+		toggleCardKey(handle);
+		if (node >= 0) {
+			updateOutgoingDamage(node, -1);
 		}
-		mNL += "\n";
-		return mNL;
+		cardStore.setCurrentAP(handle, upperAP, lowerAP, leftAP, rightAP);
+		if (node >= 0) {
+			updateOutgoingDamage(node, 1);
+		}
+		toggleCardKey(handle);
 	}
 
-	// Private helper method for toString() displays each Node's monster's
-	// current and maximum HP if applicable
+	// Private helper adds (sign 1) or removes (sign -1) the attacks of the
+	// Card in the given Node to the incoming damage of adjacent enemy Cards
+
+	private void updateOutgoingDamage(int node, int sign) {
+		int card = cells[node];
+		int owner = cardStore.getOwnerIndex(card);
+		for (int direction = 0; direction < BoardTopology.DIRECTIONS; direction++) {
+			int neighbor = topology.getNeighbor(node, direction);
+			int enemy = cells[neighbor];
+			if (enemy >= 0 && cardStore.getOwnerIndex(enemy) != owner) {
+				incomingDamage[neighbor] += sign * cardStore.getCurrentAP(card, BoardTopology.getAttackSide(direction));
+			}
+		}
+	}
 
-	private String hPLine(int row) {
-		String hPLine = "|";
-		for (int column = 0; column < 5; column++) {
-			Card card = getCard(row, column);
-			if (card == null) {
-				hPLine += spacerBox();
-			} else {
-				String hP = card.getCurrentHP() + "/" + card.getMaxHP() + " HP";
-				if (card.getContaminatedTurnsLeft() > 0) {
-					hP += " (Contaminated)";
+	// Private helper adds (sign 1) or removes (sign -1) the attacks between
+	// the Card in the given Node and each adjacent enemy Card, in both
+	// directions, including exposure to toxic attackers. Toxic exposure is
+	// counted separately for attackers in earlier Nodes, which contaminate
+	// before the Node's contamination damage is dealt, and later Nodes, which
+	// contaminate after it
+
+	private void updateAttacks(int node, int sign) {
+		int card = cells[node];
+		int owner = cardStore.getOwnerIndex(card);
+		boolean toxic = cardStore.getType(card).contaminatesOnAttack();
+		for (int direction = 0; direction < BoardTopology.DIRECTIONS; direction++) {
+			int neighbor = topology.getNeighbor(node, direction);
+			int enemy = cells[neighbor];
+			if (enemy >= 0 && cardStore.getOwnerIndex(enemy) != owner) {
+				incomingDamage[neighbor] += sign * cardStore.getCurrentAP(card, BoardTopology.getAttackSide(direction));
+				incomingDamage[node] += sign * cardStore.getCurrentAP(enemy, BoardTopology.getDefendSide(direction));
+				if (toxic) {
+					int[] exposure = node < neighbor ? earlyToxicExposure : lateToxicExposure;
+					exposure[neighbor] += sign;
+				}
+				if (cardStore.getType(enemy).contaminatesOnAttack()) {
+					int[] exposure = neighbor < node ? earlyToxicExposure : lateToxicExposure;
+					exposure[node] += sign;
 				}
-				hPLine += padString(hP, 25);
-				hPLine += "|";
 			}
 		}
-		hPLine += "\n";
-		return hPLine;
-	}
-
-	// Private helper method for toString() displays left and right AP for each
-	// Node's monster if applicable
-
-	private String middleLine(int row) {
-		String middleLine = "|";
-		for (int column = 0; column < 5; column++) {
-			Card card = getCard(row, column);
-			if (card == null) {
-				middleLine += spacerBox();
-			} else {
-				String leftAttack = "  " + card.getCurrentLeftAP();
-				String rightAttack = card.getCurrentRightAP() + "  ";
-				int spacing = 25 - (leftAttack.length() + rightAttack.length());
-				String temp = leftAttack;
-				temp += padString(" ", spacing);
-				temp += rightAttack + "|";
-				middleLine += temp;
-			}
+	}
+
+	// Private helper subtracts HP from the Player with the given index,
+	// recording the change if a move is being made
+
+	private void damagePlayer(int playerIndex, int amount) {
+		if (recording) {
+			record(playerIndex, amount, UNDO_PLAYER_DAMAGE);
+		}
+		changePlayerHP(playerIndex, -amount);
+	}
+
+	// Private helper adds HP to the Player with the given index and keeps the
+	// position key in sync
+
+	private void changePlayerHP(int playerIndex, int amount) {
+		Player player = getPlayer(playerIndex);
+		positionKey ^= Zobrist.playerKey(playerIndex, player.getHP());
+		player.addHP(amount);
+		positionKey ^= Zobrist.playerKey(playerIndex, player.getHP());
+	}
+
+	// Private helper XORs the key of the Card with the given handle into the
+	// position key if the Card is on the Board. Called before and after each
+	// change to the Card's stats
+
+	private void toggleCardKey(int handle) {
+		int node = cardNodes[handle];
+		if (node >= 0) {
+			positionKey ^= Zobrist.cardKey(node, cardStore, handle);
+		}
+	}
+
+	// Private helper returns the Player with the given index on this Board
+
+	private Player getPlayer(int playerIndex) {
+		return playerIndex == HUMAN_INDEX ? human : computer;
+	}
+
+	// Private helper puts the Card with the given handle in the given Node
+	// without applying any Zone bonus and updates the bitboards
+
+	private void occupy(int node, int handle) {
+		cells[node] = handle;
+		cardNodes[handle] = node;
+		positionKey ^= Zobrist.cardKey(node, cardStore, handle);
+		updateAttacks(node, 1);
+		int bit = 1 << node;
+		occupiedMask |= bit;
+		ownerMasks[cardStore.getOwnerIndex(handle)] |= bit;
+		if (cardStore.getContaminatedTurnsLeft(handle) > 0) {
+			contaminatedMask |= bit;
+		}
+		swapEmptyNodes(emptyIndex[node], --emptyCount);
+	}
+
+	// Private helper empties the given Node and updates the bitboards
+
+	private void vacate(int node) {
+		updateAttacks(node, -1);
+		int handle = cells[node];
+		cells[node] = -1;
+		positionKey ^= Zobrist.cardKey(node, cardStore, handle);
+		cardNodes[handle] = -1;
+		int bit = ~(1 << node);
+		occupiedMask &= bit;
+		ownerMasks[HUMAN_INDEX] &= bit;
+		ownerMasks[COMPUTER_INDEX] &= bit;
+		contaminatedMask &= bit;
+		swapEmptyNodes(emptyIndex[node], emptyCount++);
+	}
+
+	// Private helper swaps the entries at two indices of emptyNodes
+
+	private void swapEmptyNodes(int i, int j) {
+		int a = emptyNodes[i];
+		int b = emptyNodes[j];
+		emptyNodes[i] = b;
+		emptyIndex[b] = i;
+		emptyNodes[j] = a;
+		emptyIndex[a] = j;
+	}
+
+	// Private helper puts every Node in the set of empty Nodes in order. Only
+	// called when the Board is empty, so the order does not depend on the
+	// moves of an earlier game
+
+	private void resetEmptyNodes() {
+		for (int node = 0; node < emptyNodes.length; node++) {
+			emptyNodes[node] = node;
+			emptyIndex[node] = node;
+		}
+		emptyCount = emptyNodes.length;
+	}
+
+	// Private helpers for the undo journal. Each entry is its values followed by
+	// its UNDO_ code, so the journal can be read backwards. Each make call
+	// starts a frame at the current journal size
+
+	private void beginFrame(int kind) {
+		if (frameCount == frameStarts.length) {
+			frameStarts = Arrays.copyOf(frameStarts, frameCount * 2);
+			frameKinds = Arrays.copyOf(frameKinds, frameCount * 2);
+		}
+		frameStarts[frameCount] = journalSize;
+		frameKinds[frameCount] = kind;
+		frameCount++;
+		recording = true;
+	}
+
+	private void record(int code) {
+		ensureJournalCapacity(1);
+		journal[journalSize++] = code;
+	}
+
+	private void record(int a, int code) {
+		ensureJournalCapacity(2);
+		journal[journalSize++] = a;
+		journal[journalSize++] = code;
+	}
+
+	private void record(int a, int b, int code) {
+		ensureJournalCapacity(3);
+		journal[journalSize++] = a;
+		journal[journalSize++] = b;
+		journal[journalSize++] = code;
+	}
+
+	private void record(int a, int b, int c, int code) {
+		ensureJournalCapacity(4);
+		journal[journalSize++] = a;
+		journal[journalSize++] = b;
+		journal[journalSize++] = c;
+		journal[journalSize++] = code;
+	}
+
+	private void record(int a, int b, int c, int d, int e, int code) {
+		ensureJournalCapacity(6);
+		journal[journalSize++] = a;
+		journal[journalSize++] = b;
+		journal[journalSize++] = c;
+		journal[journalSize++] = d;
+		journal[journalSize++] = e;
+		journal[journalSize++] = code;
+	}
+
+	private void ensureJournalCapacity(int entries) {
+		if (journalSize + entries > journal.length) {
+			journal = Arrays.copyOf(journal, Math.max(journal.length * 2, journalSize + entries));
 		}
-		middleLine += "\n";
-		return middleLine;
 	}
 
-	// Private helper method for toString() displays each Node's monster's owner
-	// if applicable
+	// Private helper undoes every journal entry of the most recent frame,
+	// newest first
 
-	private String monsterOwnerLine(int row) {
-		String mOL = "|";
-		for (int column = 0; column < 5; column++) {
-			Card card = getCard(row, column);
-			if (card == null) {
-				mOL += spacerBox();
-			} else {
-				mOL += padString(card.getOwner().getName(), 25);
-				mOL += "|";
+	private void undoFrame(int kind) {
+		if (frameCount == 0 || frameKinds[frameCount - 1] != kind) {
+			throw new IllegalStateException("Invalid: No matching move to take back");
+		}
+		int start = frameStarts[--frameCount];
+		while (journalSize > start) {
+			int code = journal[--journalSize];
+			switch (code) {
+			case UNDO_HP: {
+				int hP = journal[--journalSize];
+				setCardHP(journal[--journalSize], hP);
+				break;
+			}
+			case UNDO_AP: {
+				int rightAP = journal[--journalSize];
+				int leftAP = journal[--journalSize];
+				int lowerAP = journal[--journalSize];
+				int upperAP = journal[--journalSize];
+				setCardAP(journal[--journalSize], upperAP, lowerAP, leftAP, rightAP);
+				break;
 			}
+			case UNDO_CONTAMINATION: {
+				int turnsLeft = journal[--journalSize];
+				int node = journal[--journalSize];
+				setContaminatedTurnsLeft(node / 5, node % 5, turnsLeft);
+				break;
+			}
+			case UNDO_PLACE: {
+
+				// Put the Node back where it was in the set of empty Nodes
+				int index = journal[--journalSize];
+				int node = journal[--journalSize];
+				vacate(node);
+				swapEmptyNodes(emptyIndex[node], index);
+				break;
+			}
+			case UNDO_REMOVE: {
+				int handle = journal[--journalSize];
+				int node = journal[--journalSize];
+				discardPile.removeLastCard();
+				occupy(node, handle);
+				break;
+			}
+			case UNDO_HAND: {
+				int handle = journal[--journalSize];
+				int handIndex = journal[--journalSize];
+				int playerIndex = journal[--journalSize];
+				getPlayer(playerIndex).getHand().add(handIndex, cardStore.getCard(handle));
+				positionKey ^= Zobrist.handKey(playerIndex, handle);
+				break;
+			}
+			case UNDO_PLAYER_DAMAGE: {
+				int amount = journal[--journalSize];
+				changePlayerHP(journal[--journalSize], amount);
+				break;
+			}
+			case UNDO_TURN:
+				turn--;
+				break;
+			default:
+				throw new IllegalStateException("Invalid: Corrupt undo journal");
+			}
+		}
+	}
+
+	// Returns the random number generators of the current game
+
+	public GameRandom getRandom() {
+		return random;
+	}
+
+	// Starts a new game that is fully determined by the given seed: every
+	// random stream is re-seeded from the seed, every Card is generated anew,
+	// and the Board is brought back to a clean state
+
+	public void resetBoard(long seed) {
+		random = new GameRandom(seed);
+		cardGenerator.setRandom(random.getCardStream());
+		for (int handle = 0; handle < cardStore.size(); handle++) {
+			cardGenerator.rerollCard(cardStore.getCard(handle));
+		}
+		resetBoard();
+	}
+
+	// Brings the board back to a clean state
+
+	public void resetBoard() {
+
+		// Remove all Cards and zone bonuses from the board
+
+		for (int remaining = occupiedMask; remaining != 0; remaining &= remaining - 1) {
+			vacate(Integer.numberOfTrailingZeros(remaining));
+		}
+		resetEmptyNodes();
+		for (int node = 0; node < topology.getNodeCount(); node++) {
+			generateZoneBonus(null, node / 5, node % 5);
+		}
+
+		// Return every Card to the Deck by refilling it with every handle
+		// rather than moving Cards back from the hands and discard pile, then
+		// reset every Card in one pass over the CardStore and shuffle
+
+		discardPile.clear();
+		deck.fillWithAllCards();
+		cardStore.resetAll();
+		deck.shuffle(random.getShuffleStream());
+
+		// Reset the Players' HP and hands and the turn counter
+
+		human.reset();
+		computer.reset();
+		turn = 1;
+		journalSize = 0;
+		frameCount = 0;
+		positionKey = computePositionKey();
+
+	}
+
+	// Package-private hooks used by GameSnapshot to rebuild a saved game in
+	// place. beginRestore empties the Nodes, Zones, Deck, discard pile and
+	// hands and puts the random streams in the given state. The snapshot
+	// then writes every Card's stats into the CardStore, refills the hands and
+	// piles, puts Cards back with restoreCard and the empty Nodes back in
+	// order with restoreEmptyNode, and endRestore recomputes the position key
+
+	void beginRestore(long seed, long[] randomState, int turn, String difficulty, int firstPlayerIndex) {
+		for (int remaining = occupiedMask; remaining != 0; remaining &= remaining - 1) {
+			vacate(Integer.numberOfTrailingZeros(remaining));
 		}
-		mOL += "\n";
-		return mOL;
+		resetEmptyNodes();
+		for (int node = 0; node < topology.getNodeCount(); node++) {
+			generateZoneBonus(null, node / 5, node % 5);
+		}
+		deck.clear();
+		discardPile.clear();
+		human.reset();
+		computer.reset();
+		random = new GameRandom(seed);
+		random.setState(randomState);
+		cardGenerator.setRandom(random.getCardStream());
+		this.turn = turn;
+		this.difficulty = difficulty;
+		this.firstPlayerIndex = firstPlayerIndex;
+		journalSize = 0;
+		frameCount = 0;
 	}
 
-	// Private helper method for toString() pads the given String with the given
-	// number of spaces, with the String as centered as possible
+	// Package-private hook used by MonteCarloSearch to deal a sampled hand.
+	// Replaces the hand of the Player with the given index by the Cards with
+	// the first count handles, which become owned by that Player
 
-	private String padString(String toPad, int totalSpaces) {
-		String s = "";
-		int spacing = totalSpaces - toPad.length();
-		for (int spaceNumber = 0; spaceNumber < (spacing / 2); spaceNumber++) {
-			s += " ";
+	void setHand(int playerIndex, int[] handles, int count) {
+		List<Card> hand = getPlayer(playerIndex).getHand();
+		for (int i = 0; i < hand.size(); i++) {
+			positionKey ^= Zobrist.handKey(playerIndex, hand.get(i).getHandle());
 		}
-		s += toPad;
-		for (int spaceNumber = 0; spaceNumber < spacing - (spacing / 2); spaceNumber++) {
-			s += " ";
+		hand.clear();
+		for (int i = 0; i < count; i++) {
+			cardStore.setOwnerIndex(handles[i], playerIndex);
+			hand.add(cardStore.getCard(handles[i]));
+			positionKey ^= Zobrist.handKey(playerIndex, handles[i]);
 		}
-		return s;
+	}
+
+	Deck getDeck() {
+		return deck;
+	}
+
+	Deck getDiscardPile() {
+		return discardPile;
+	}
+
+	void restoreCard(int node, int handle) {
+		if (cells[node] >= 0 || cardNodes[handle] >= 0) {
+			throw new IllegalArgumentException("Invalid: Card or Node is already in use");
+		}
+		occupy(node, handle);
+	}
+
+	void restoreEmptyNode(int index, int node) {
+		if (node < 0 || node >= emptyNodes.length || emptyIndex[node] < index || emptyIndex[node] >= emptyCount) {
+			throw new IllegalArgumentException("Invalid: Node is not empty or is already in order");
+		}
+		swapEmptyNodes(emptyIndex[node], index);
+	}
+
+	void endRestore() {
+		positionKey = computePositionKey();
+	}
+
+	// Initializes the Board deck with a given number of Cards and creates the discard pile
+
+	private void initializeDecks() {
+		this.cardGenerator = new CardGenerator(cardStore, random.getCardStream());
+		for (int cardNumber = 0; cardNumber < CARDS_IN_DECK; cardNumber++) {
+			cardGenerator.generateRandomCard();
+		}
+		this.deck = new Deck(cardStore);
+		this.discardPile = new Deck(cardStore);
+		deck.fillWithAllCards();
+	}
+	
+	private void initializeBoard() {
+		topology = BoardTopology.STANDARD;
+		cells = new int[topology.getNodeCount() + 1];
+		Arrays.fill(cells, -1);
+		incomingDamage = new int[topology.getNodeCount() + 1];
+		earlyToxicExposure = new int[topology.getNodeCount() + 1];
+		lateToxicExposure = new int[topology.getNodeCount() + 1];
+		contaminationDamage = new int[topology.getNodeCount() + 1];
+		emptyNodes = new int[topology.getNodeCount()];
+		emptyIndex = new int[topology.getNodeCount()];
+		resetEmptyNodes();
+		board = new Node[5][5];
+		for (int i = 0; i < 5; i++) {
+		    for (int j = 0; j < 5; j++) {
+		        board[i][j] = new Node();
+		    }
+		}
+	}
+
+	// Returns a String representation of the current status of the board
+
+	public String toString() {
+		if (renderer == null) {
+			renderer = new ConsoleBoardRenderer(this);
+		}
+		return renderer.render().toString();
 	}
 
 	/*
 	 * The Node class represents a single space on the battlefield on which a
-	 * card may be placed. It keeps track of the Node's location, the Card that
-	 * is placed in it, the owner of the Card, and the current status of the
-	 * Card's attributes
+	 * card may be placed. It keeps track of any Zone bonus in the Node; the
+	 * Card placed in each Node is kept by the Board in its cells array
 	 *
 	 * Author: Eric Wahlquist
 	 */
 
 	private class Node {
 
-		private Card currentCard;
 		private Zone zoneBonus;
 
 		// Constructor creates a blank Node
 
 		public Node() {
-			setCurrentCard(null);
 			zoneBonus = null;
 		}
 
-		// Returns the current Card placed in this Node
-
-		public Card getCard() {
-			return currentCard;
-		}
-
 		// Returns the Zone bonus currently in place in this Node. Returns null
 		// if no bonus
 
@@ -455,22 +1217,12 @@ public class Board {
 			zoneBonus = zone;
 		}
 
-		// Sets the current Card placed in this Node and applies any Zone
-		// bonuses to it
+		// Applies any Zone bonus of this Node to a Card being placed in it
 
-		public void setCurrentCard(Card card) {
-			this.currentCard = card;
+		public void applyZoneBonus(Card card) {
 			if (zoneBonus != null) {
 				zoneBonus.applyZoneBonus(card);
 			}
 		}
-
-		// Removes a Card placed in this Node and returns it
-
-		public Card removeCard() {
-			Card card = getCard();
-			currentCard = null;
-			return card;
-		}
 	}
 }
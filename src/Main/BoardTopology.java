@@ -0,0 +1,124 @@
+package Main;
+/*
+ * This class describes the shape of a Board: how many Nodes it has and which Nodes are adjacent to each other.
+ * Nodes are numbered row by row (node = row * columns + column). For each Node and each of the four directions,
+ * the neighboring Node is precomputed, along with the side of a Card that attacks in that direction and the side
+ * of the neighbor that hits back. Directions that lead off the Board point to the sentinel Node getEdge(), which
+ * never holds a Card, so neighbor scans need no bounds checks.
+ */
+
+public final class BoardTopology {
+
+	// Directions from a Node to its neighbors
+
+	public static final int UP = 0;
+	public static final int LEFT = 1;
+	public static final int RIGHT = 2;
+	public static final int DOWN = 3;
+	public static final int DIRECTIONS = 4;
+
+	// The standard 5x5 Card Battle board
+
+	public static final BoardTopology STANDARD = new BoardTopology(5, 5);
+
+	// Side of a Card that attacks in each direction, and side of the neighbor
+	// in that direction that attacks back
+
+	private static final int[] ATTACK_SIDES = { CardStore.UPPER, CardStore.LEFT, CardStore.RIGHT, CardStore.LOWER };
+	private static final int[] DEFEND_SIDES = { CardStore.LOWER, CardStore.RIGHT, CardStore.LEFT, CardStore.UPPER };
+
+	private final int rows, columns, nodes;
+
+	// Neighbor of each Node in each direction, at node * DIRECTIONS + direction
+
+	private final int[] neighbors;
+
+	// Bitboard of the neighbors of each Node
+
+	private final int[] neighborMasks;
+
+	// Creates the topology of a rectangular board. Bitboards are ints, so a
+	// board may have at most 32 Nodes
+
+	public BoardTopology(int rows, int columns) {
+		if (rows < 1 || columns < 1 || rows * columns > 32) {
+			throw new IllegalArgumentException("Invalid: Board must have between 1 and 32 Nodes");
+		}
+		this.rows = rows;
+		this.columns = columns;
+		this.nodes = rows * columns;
+		this.neighbors = new int[nodes * DIRECTIONS];
+		this.neighborMasks = new int[nodes];
+		for (int node = 0; node < nodes; node++) {
+			int row = node / columns;
+			int column = node % columns;
+			neighbors[node * DIRECTIONS + UP] = row > 0 ? node - columns : nodes;
+			neighbors[node * DIRECTIONS + LEFT] = column > 0 ? node - 1 : nodes;
+			neighbors[node * DIRECTIONS + RIGHT] = column < columns - 1 ? node + 1 : nodes;
+			neighbors[node * DIRECTIONS + DOWN] = row < rows - 1 ? node + columns : nodes;
+			for (int direction = 0; direction < DIRECTIONS; direction++) {
+				int neighbor = neighbors[node * DIRECTIONS + direction];
+				if (neighbor != nodes) {
+					neighborMasks[node] |= 1 << neighbor;
+				}
+			}
+		}
+	}
+
+	// Returns the number of rows of this board
+
+	public int getRows() {
+		return rows;
+	}
+
+	// Returns the number of columns of this board
+
+	public int getColumns() {
+		return columns;
+	}
+
+	// Returns the number of Nodes on this board
+
+	public int getNodeCount() {
+		return nodes;
+	}
+
+	// Returns the sentinel Node that directions leading off the board point to
+
+	public int getEdge() {
+		return nodes;
+	}
+
+	// Returns the bitboard with a bit set for every Node on this board
+
+	public int getFullMask() {
+		return nodes == 32 ? -1 : (1 << nodes) - 1;
+	}
+
+	// Returns the neighbor of the given Node in the given direction, or
+	// getEdge() if that direction leads off the board
+
+	public int getNeighbor(int node, int direction) {
+		return neighbors[node * DIRECTIONS + direction];
+	}
+
+	// Returns the bitboard of the neighbors of the given Node
+
+	public int getNeighborMask(int node) {
+		return neighborMasks[node];
+	}
+
+	// Returns the side of a Card (CardStore.UPPER, LOWER, LEFT or RIGHT) that
+	// attacks a neighbor in the given direction
+
+	public static int getAttackSide(int direction) {
+		return ATTACK_SIDES[direction];
+	}
+
+	// Returns the side of the neighbor in the given direction that attacks
+	// back
+
+	public static int getDefendSide(int direction) {
+		return DEFEND_SIDES[direction];
+	}
+}
@@ -2,254 +2,265 @@ package Main;
 /*
  * This class represents a monster card used in Card Battle. Each Card has a name of the monster (name), a monster type, 
  * its monster level, its health (hP), and it's original and current upper, lower, left, and right attack points (AP).
+ * A Card is a view over a handle in a CardStore, which keeps the stats of many Cards in primitive arrays.
  * 
  * Author: Eric Wahlquist
  */
 
 public class Card {
 
-	// Monster's basic information
+	// The CardStore that holds this Card's stats and this Card's handle in it
 
-	private String name, type;
-	private Player owner;
-	private int level;
+	private final CardStore store;
+	private final int handle;
 
-	// Monster's stats
-
-	private int maxHP, currentHP;
-	private int initialUpperAP, initialLowerAP, initialLeftAP, initialRightAP;
-	private int currentUpperAP, currentLowerAP, currentLeftAP, currentRightAP;
-
-	// Keeps track of number of turns left of any contamination on this monster
-
-	private int contaminatedTurnsLeft;
-
-	// Explicit private default constructor that prevents invalid Cards from
-	// being created
-
-	@SuppressWarnings("unused")
-	private Card() {
-	}
-
-	// Main constructor used for creating Card objects
+	// Creates a stand-alone Card, stored in a CardStore of its own. Each call
+	// allocates a whole (one-Card) CardStore, so this is only meant for tests
+	// and tools that need a single Card. Game code gets its Cards as views of
+	// the Board's CardStore with CardStore.getCard
 
 	public Card(String name, String type, int level, int hP, int upperAP, int lowerAP, int leftAP, int rightAP,
 			Player owner) {
+		this.store = new CardStore(1);
+		this.handle = store.allocate();
+		store.setView(handle, this);
 		setName(name);
 		setType(type);
 		setLevel(level);
 		setOwner(owner);
 		setMaxHP(hP);
 		setInitialAP(upperAP, lowerAP, leftAP, rightAP);
-		setCurrentHP(maxHP);
+		setCurrentHP(hP);
 		setCurrentAP(upperAP, lowerAP, leftAP, rightAP);
 		setContaminatedTurnsLeft(0);
 	}
 
+	// Creates a view of the Card with the given handle in the given CardStore.
+	// Use CardStore.getCard to obtain views
+
+	Card(CardStore store, int handle) {
+		this.store = store;
+		this.handle = handle;
+	}
+
+	// Returns the CardStore that holds this Card's stats
+
+	public CardStore getStore() {
+		return store;
+	}
+
+	// Returns this Card's handle in its CardStore
+
+	public int getHandle() {
+		return handle;
+	}
+
 	// Returns a String of the name of the monster represented by this Card
 
 	public String getName() {
-		return name;
+		return store.getName(handle);
 	}
 
 	// Returns a String of the type of the monster represented by this Card
 
 	public String getType() {
-		return type;
+		return store.getType(handle).getName();
+	}
+
+	// Returns the MonsterType of the monster represented by this Card
+
+	public MonsterType getMonsterType() {
+		return store.getType(handle);
 	}
 
 	// Returns the level of the monster represented by this Card as an integer
 
 	public int getLevel() {
-		return level;
+		return store.getLevel(handle);
 	}
 
 	// Returns the Player that owns this Card
 
 	public Player getOwner() {
-		return owner;
+		return store.getPlayer(store.getOwnerIndex(handle));
 	}
 
 	// Returns the maximum HP (health points) of the monster represented by this
 	// Card as an integer
 
 	public int getMaxHP() {
-		return maxHP;
+		return store.getMaxHP(handle);
 	}
 
 	// Returns the current HP of the monster represented by this Card as an
 	// integer
 
 	public int getCurrentHP() {
-		return currentHP;
+		return store.getCurrentHP(handle);
 	}
 
 	// Returns the initial upper AP (attack points) of the monster represented
 	// by this Card as an integer
 
 	public int getInitialUpperAP() {
-		return initialUpperAP;
+		return store.getInitialAP(handle, CardStore.UPPER);
 	}
 
 	// Returns the initial lower AP (attack points) of the monster represented
 	// by this Card as an integer
 
 	public int getInitialLowerAP() {
-		return initialLowerAP;
+		return store.getInitialAP(handle, CardStore.LOWER);
 	}
 
 	// Returns the initial left AP (attack points) of the monster represented by
 	// this Card as an integer
 
 	public int getInitialLeftAP() {
-		return initialLeftAP;
+		return store.getInitialAP(handle, CardStore.LEFT);
 	}
 
 	// Returns the initial right AP (attack points) of the monster represented
 	// by this Card as an integer
 
 	public int getInitialRightAP() {
-		return initialRightAP;
+		return store.getInitialAP(handle, CardStore.RIGHT);
 	}
 
 	// Returns the current upper AP of the monster represented by this Card as
 	// an integer
 
 	public int getCurrentUpperAP() {
-		return currentUpperAP;
+		return store.getCurrentAP(handle, CardStore.UPPER);
 	}
 
 	// Returns the current lower AP of the monster represented by this Card as
 	// an integer
 
 	public int getCurrentLowerAP() {
-		return currentLowerAP;
+		return store.getCurrentAP(handle, CardStore.LOWER);
 	}
 
 	// Returns the current left AP of the monster represented by this Card as an
 	// integer
 
 	public int getCurrentLeftAP() {
-		return currentLeftAP;
+		return store.getCurrentAP(handle, CardStore.LEFT);
 	}
 
 	// Returns the current right AP of the monster represented by this Card as
 	// an integer
 
 	public int getCurrentRightAP() {
-		return currentRightAP;
+		return store.getCurrentAP(handle, CardStore.RIGHT);
 	}
 
 	// Returns the number of turns left on this Card's contamination status as
 	// an integer
 
 	public int getContaminatedTurnsLeft() {
-		return contaminatedTurnsLeft;
+		return store.getContaminatedTurnsLeft(handle);
 	}
 
 	// Sets the name of the monster represented by this Card
 
 	public void setName(String name) {
-		this.name = name;
+		store.setName(handle, name);
 	}
 
 	// Sets the type of the monster represented by this Card
 
 	public void setType(String type) {
-		this.type = type;
+		setMonsterType(MonsterType.fromName(type));
+	}
+
+	// Sets the MonsterType of the monster represented by this Card
+
+	public void setMonsterType(MonsterType type) {
+		store.setType(handle, type);
 	}
 
 	// Sets the level of the monster represented by this Card
 
 	public void setLevel(int level) {
-		this.level = level;
+		store.setLevel(handle, level);
 	}
 
 	// Sets the current owner of this Card
 
 	public void setOwner(Player owner) {
-		this.owner = owner;
+		store.setOwnerIndex(handle, store.playerIndex(owner));
 	}
 
 	// Sets the maximum HP (health points) of the monster represented by this
 	// Card
 
 	public void setMaxHP(int hP) {
-		this.maxHP = hP;
+		store.setMaxHP(handle, hP);
 	}
 
 	// Sets the current HP (health points) of the monster represented by this
 	// card
 	public void setCurrentHP(int currentHP) {
-		this.currentHP = currentHP;
+		store.setCurrentHP(handle, currentHP);
 	}
 
 	// Adds the given amount of HP to this Card's current HP
 
 	public void addHP(int amountToAdd) {
-		currentHP += amountToAdd;
+		store.setCurrentHP(handle, getCurrentHP() + amountToAdd);
 	}
 
 	// Subtracts the given amount of HP from this Card's current HP
 
 	public void subtractHP(int amountToSubtract) {
-		currentHP -= amountToSubtract;
+		store.setCurrentHP(handle, getCurrentHP() - amountToSubtract);
 	}
 
 	// Sets the AP (attack points) of the monster represented by this Card
 
 	public void setInitialAP(int initialUpperAP, int initialLowerAP, int initialLeftAP, int initialRightAP) {
-		this.initialUpperAP = initialUpperAP;
-		this.initialLowerAP = initialLowerAP;
-		this.initialLeftAP = initialLeftAP;
-		this.initialRightAP = initialRightAP;
+		store.setInitialAP(handle, initialUpperAP, initialLowerAP, initialLeftAP, initialRightAP);
 	}
 
 	// Sets the current AP (attack points) of the monster represented by this
 	// Card
 
 	public void setCurrentAP(int currentUpperAP, int currentLowerAP, int currentLeftAP, int currentRightAP) {
-		this.currentUpperAP = currentUpperAP;
-		this.currentLowerAP = currentLowerAP;
-		this.currentLeftAP = currentLeftAP;
-		this.currentRightAP = currentRightAP;
+		store.setCurrentAP(handle, currentUpperAP, currentLowerAP, currentLeftAP, currentRightAP);
 	}
 
 	// Adds the given amount of AP to each side of this card
 
 	public void addAP(int amountToAdd) {
-		setCurrentAP(currentUpperAP + amountToAdd, currentLowerAP + amountToAdd, currentLeftAP + amountToAdd,
-				currentRightAP + amountToAdd);
+		store.addAP(handle, amountToAdd);
 	}
 
 	// Sets this Card to be contaminated (was hit by a toxic monster) until a
 	// given turn number
 
 	public void setContaminatedTurnsLeft(int numberOfTurns) {
-		contaminatedTurnsLeft = numberOfTurns;
+		store.setContaminatedTurnsLeft(handle, numberOfTurns);
 	}
 
 	// Resets all current stats to their initial numbers and clears the owner
 
 	public void reset() {
-		setCurrentHP(maxHP);
-		setCurrentAP(initialUpperAP, initialLowerAP, initialLeftAP, initialRightAP);
-		setOwner(null);
-		setContaminatedTurnsLeft(0);
+		store.reset(handle);
 	}
 
 	// Returns a string that displays the information of the monster represented
 	// by this Card
 
 	public String toString() {
-		String s = name + ":\n\n";
-		s += "Type: " + type + "\n";
-		s += "Monster level: " + level + "\n";
-		s += "Maximum HP: " + maxHP + "\n";
-		s += "Upper AP: " + currentUpperAP + "\n";
-		s += "Lower AP: " + currentLowerAP + "\n";
-		s += "Left AP: " + currentLeftAP + "\n";
-		s += "Right AP: " + currentRightAP + "\n";
+		String s = getName() + ":\n\n";
+		s += "Type: " + getType() + "\n";
+		s += "Monster level: " + getLevel() + "\n";
+		s += "Maximum HP: " + getMaxHP() + "\n";
+		s += "Upper AP: " + getCurrentUpperAP() + "\n";
+		s += "Lower AP: " + getCurrentLowerAP() + "\n";
+		s += "Left AP: " + getCurrentLeftAP() + "\n";
+		s += "Right AP: " + getCurrentRightAP() + "\n";
 		return s;
 	}
 }
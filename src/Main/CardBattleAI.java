@@ -1,6 +1,7 @@
 package Main;
 
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 /*
  * This class contains methods used for calculations in the Card Battle game, including the AI code for the computer's turn as well as
@@ -14,7 +15,9 @@ public class CardBattleAI {
     private final int INITIAL_DEAL_NUMBER = 5;
 
     private Board board;
-    private Random r;
+
+    // The strategy playing each difficulty, by lower case name
+    private final Map<String, AIStrategy> strategies = new HashMap<String, AIStrategy>();
 
     // Private default constructor prevents an invalid CardBattleAI from being
     // created
@@ -25,7 +28,6 @@ public class CardBattleAI {
     // Creates a CardBattleAI from a given board and difficulty
     public CardBattleAI(Board board) {
         this.board = board;
-        r = new Random();
     }
 
     // Draws INITIAL_DEAL_NUMBER Cards for each player
@@ -39,234 +41,111 @@ public class CardBattleAI {
     // Ends the turn on the Board and deals the appropriate damage to each Card
     // on the Board.
     public void endTurn() {
-
-        for (int row = 0; row < 5; row++) {
-            for (int column = 0; column < 5; column++) {
-
-                // For each Node:
-                // Get information about the Card at the Node
-                Card card = board.getCard(row, column);
-
-                // If the Card exists, deal appropriate damage to adjacent Cards
-                if (card != null) {
-                    Player owner = card.getOwner();
-
-                    // Deal attacks to any enemy Card above this Card and apply any
-                    // contamination
-                    if (row > 0) {
-                        Card cardAbove = board.getCard(row - 1, column);
-                        if (!(cardAbove == null) && cardAbove.getOwner() != owner) {
-                            cardAbove.subtractHP(card.getCurrentUpperAP());
-                            if (card.getType().equals("Toxic")) {
-                                cardAbove.setContaminatedTurnsLeft(5);
-                            }
-                        }
-                    }
-
-                    // Deal attacks to any enemy Card to the left of this Card and
-                    // apply any contamination
-                    if (column > 0) {
-                        Card cardLeft = board.getCard(row, column - 1);
-                        if (!(cardLeft == null) && cardLeft.getOwner() != owner) {
-                            cardLeft.subtractHP(card.getCurrentLeftAP());
-                            if (card.getType().equals("Toxic")) {
-                                cardLeft.setContaminatedTurnsLeft(5);
-                            }
-                        }
-                    }
-
-                    // Deal attacks to any enemy Card to the right of this Card and
-                    // apply any contamination
-                    if (column < 4) {
-                        Card cardRight = board.getCard(row, column + 1);
-                        if (!(cardRight == null) && cardRight.getOwner() != owner) {
-                            cardRight.subtractHP(card.getCurrentRightAP());
-                            if (card.getType().equals("Toxic")) {
-                                cardRight.setContaminatedTurnsLeft(5);
-                            }
-                        }
-                    }
-
-                    // Deal attacks to any enemy Card below this Card and apply any
-                    // contamination
-                    if (row < 4) {
-                        Card cardBelow = board.getCard(row + 1, column);
-                        if (!(cardBelow == null) && cardBelow.getOwner() != owner) {
-                            cardBelow.subtractHP(card.getCurrentLowerAP());
-                            if (card.getType().equals("Toxic")) {
-                                cardBelow.setContaminatedTurnsLeft(5);
-                            }
-                        }
-                    }
-                    
-                    // Deal any contamination damage to this Card
-                    if (card.getContaminatedTurnsLeft() > 0) {
-                        int contaminationDamage = r.nextInt(5) + 3;
-                        int turnsLeft = card.getContaminatedTurnsLeft();
-                        card.subtractHP(contaminationDamage);
-                        card.setContaminatedTurnsLeft(--turnsLeft);
-                    }
-                }
-            }
-        }
-
-        // After all damage is dealt across the board, remove any dead monsters
-        // and apply the proper damage to their owners
-        for (int row = 0; row < 5; row++) {
-            for (int column = 0; column < 5; column++) {
-                Card card = board.getCard(row, column);
-                if (card != null && card.getCurrentHP() <= 0) {
-                    card.getOwner().subtractHP(card.getMaxHP());
-                    board.removeCard(row, column);
-                }
-            }
-        }
-
-        // Increment the turn counter
-        board.incrementTurn();
+        board.endTurn();
     }
 
     // Initiates the AI for the computer's turn, depending on the chosen
     // difficulty level
     public void computerTurn() {
-        if (board.getDifficulty().equalsIgnoreCase("Easy")) {
-            easyAI();
-        } else {
-            mediumAndHardAI();
-        }
-        board.drawCard(board.getComputerPlayer());
+        playTurn(board.getComputerPlayer(), board.getDifficulty());
     }
 
-    // Provides an AI with easy difficulty (Random Card and Node choices)
-    private void easyAI() {
-        Card cardToPlay = null;
-        int slot = -1;
-        do {
-            slot = r.nextInt(25);
-            int randomCardIndex = r.nextInt(board.getComputerPlayer().getHand().size());
-            cardToPlay = board.getComputerPlayer().getHand().get(randomCardIndex);
-        } while (board.placeCard(cardToPlay, slot / 5, slot % 5));
+    // Plays a turn for the given Player with the AI of the given difficulty:
+    // places a Card from the Player's hand and draws a new one if the Deck is
+    // not empty. Returns false if no Card could be placed because the Board
+    // is full or the Player's hand is empty
+    public boolean playTurn(Player player, String difficulty) {
+        return playTurn(player, getStrategy(difficulty));
     }
 
-    // Provides an AI with medium difficulty (Calculates damage given vs. damage
-    // taken)
-    private void mediumAndHardAI() {
-        Card cardToPlay = null;
-        int rowToPlay = -1;
-        int columnToPlay = -1;
-        int maxScore = Integer.MIN_VALUE;
-
-        for (int row = 0; row < 5; row++) {
-            for (int column = 0; column < 5; column++) {
-                Card cardInNode = board.getCard(row, column);
-                if (cardInNode == null) {
-                    for (Card card : board.getComputerPlayer().getHand()) {
-                        int damageGiven = 0;
-                        int damageTaken = 0;
-                        int hardBonus = 0;
-                        int score;
-
-                        // Scan enemies above
-                        if (row > 0) {
-                            Card cardAbove = board.getCard(row - 1, column);
-                            if (cardAbove != null && cardAbove.getOwner() != board.getComputerPlayer()) {
-                                damageGiven += Math.min(card.getCurrentUpperAP(), cardAbove.getCurrentHP());
-                                damageTaken += Math.min(cardAbove.getCurrentLowerAP(), card.getCurrentHP());
-                            }
-                        }
-
-                        // Scan enemies to the left
-                        if (column > 0) {
-                            Card cardLeft = board.getCard(row, column - 1);
-                            if (cardLeft != null && cardLeft.getOwner() != board.getComputerPlayer()) {
-                                damageGiven += Math.min(card.getCurrentLeftAP(), cardLeft.getCurrentHP());
-                                damageTaken += Math.min(cardLeft.getCurrentRightAP(), card.getCurrentHP());
-                            }
-                        }
-
-                        // Scan enemies to the right
-                        if (column < 4) {
-                            Card cardRight = board.getCard(row, column + 1);
-                            if (cardRight != null && cardRight.getOwner() != board.getComputerPlayer()) {
-                                damageGiven += Math.min(card.getCurrentRightAP(), cardRight.getCurrentHP());
-                                damageTaken += Math.min(cardRight.getCurrentLeftAP(), card.getCurrentHP());
-                            }
-                        }
-
-                        // Scan enemies below
-                        if (row < 4) {
-                            Card cardBelow = board.getCard(row + 1, column);
-                            if (cardBelow != null && cardBelow.getOwner() != board.getComputerPlayer()) {
-                                damageGiven += Math.min(card.getCurrentLowerAP(), cardBelow.getCurrentHP());
-                                damageTaken += Math.min(cardBelow.getCurrentUpperAP(), card.getCurrentHP());
-                            }
-                        }
-
-                        // If the difficulty is "Hard", apply additional checks
-                        if (board.getDifficulty().equalsIgnoreCase("Hard")) {
-                            hardBonus = hardAI(row, column, card);
-                        }
+    // Plays a turn for the given Player with the given strategy, like
+    // playTurn with a difficulty. If the strategy is interrupted, its
+    // CancellationException is passed on and nothing is placed
+    public boolean playTurn(Player player, AIStrategy strategy) {
+        if (board.isFull() || player.getHand().isEmpty()) {
+            return false;
+        }
+        Move move = strategy.chooseMove(new GameView(board, player));
+        if (move == null
+                || !board.placeCard(board.getCardStore().getCard(move.getHandle()), move.getRow(), move.getColumn())) {
+            throw new IllegalStateException("Invalid: " + strategy.getName() + " AI did not choose a legal move");
+        }
+        if (board.getDeckSize() > 0) {
+            board.drawCard(player);
+        }
+        return true;
+    }
 
-                        // Calculate the total score of the Card/Node combination
-                        // and check if it is the best combination so far
-                        score = (damageGiven - damageTaken) + hardBonus;
-                        if (score > maxScore) {
-                            cardToPlay = card;
-                            rowToPlay = row;
-                            columnToPlay = column;
-                            maxScore = score;
-                        }
-                    }
-                }
+    // Returns the strategy that plays the given difficulty, creating it from
+    // AIStrategyRegistry the first time. Difficulties that are not registered
+    // are played by the Medium AI
+    public AIStrategy getStrategy(String difficulty) {
+        String key = difficulty.toLowerCase(Locale.ROOT);
+        AIStrategy strategy = strategies.get(key);
+        if (strategy == null) {
+            if (!AIStrategyRegistry.isRegistered(difficulty)) {
+                return getStrategy("Medium");
             }
+            strategy = AIStrategyRegistry.create(difficulty);
+            strategies.put(key, strategy);
         }
-        board.placeCard(cardToPlay, rowToPlay, columnToPlay);
+        return strategy;
     }
 
-    // Provides an AI with hard difficulty by taking into account more factors
-    // in the placement of cards
-    private int hardAI(int row, int column, Card card) {
-
-        int potentialDamage = card.getCurrentUpperAP() + card.getCurrentLowerAP() + card.getCurrentLeftAP()
-                + card.getCurrentRightAP();
+    // Replaces the strategy that plays the given difficulty, for example with
+    // one that has a different thread count or a MeteredStrategy around it
+    public void setStrategy(String difficulty, AIStrategy strategy) {
+        strategies.put(difficulty.toLowerCase(Locale.ROOT), strategy);
+    }
 
-        // Check nodes above for wasted potential damage
-        if (row == 0) {
-            potentialDamage -= card.getCurrentUpperAP();
-        } else {
-            Card cardAbove = board.getCard(row - 1, column);
-            if (cardAbove != null && cardAbove.getOwner() == board.getComputerPlayer()) {
-                potentialDamage -= card.getCurrentUpperAP();
-            }
+    // Stops any threads the AIs started
+    public void shutdown() {
+        for (AIStrategy strategy : strategies.values()) {
+            strategy.shutdown();
         }
+    }
 
-        // Check nodes below for wasted potential damage
-        if (row == 4) {
-            potentialDamage -= card.getCurrentLowerAP();
-        } else {
-            Card cardBelow = board.getCard(row + 1, column);
-            if (cardBelow != null && cardBelow.getOwner() == board.getComputerPlayer()) {
-                potentialDamage -= card.getCurrentLowerAP();
+    // Returns the score the medium (or, if hard is true, the hard) AI gives
+    // to placing the Card with the given handle in the given empty Node for
+    // the Player with the given index
+    static int greedyScore(Board board, int node, int handle, int playerIndex, boolean hard) {
+        BoardTopology topology = board.getTopology();
+        CardStore store = board.getCardStore();
+        int damageGiven = 0;
+        int damageTaken = 0;
+
+        // Scan enemies in every direction
+        for (int direction = 0; direction < BoardTopology.DIRECTIONS; direction++) {
+            int enemy = board.getCardHandle(topology.getNeighbor(node, direction));
+            if (enemy >= 0 && store.getOwnerIndex(enemy) != playerIndex) {
+                damageGiven += Math.min(store.getCurrentAP(handle, BoardTopology.getAttackSide(direction)),
+                        store.getCurrentHP(enemy));
+                damageTaken += Math.min(store.getCurrentAP(enemy, BoardTopology.getDefendSide(direction)),
+                        store.getCurrentHP(handle));
             }
         }
 
-        // Check nodes to left for wasted potential damage
-        if (column == 0) {
-            potentialDamage -= card.getCurrentLeftAP();
-        } else {
-            Card cardLeft = board.getCard(row, column - 1);
-            if (cardLeft != null && cardLeft.getOwner() == board.getComputerPlayer()) {
-                potentialDamage -= card.getCurrentLeftAP();
-            }
-        }
+        // If the difficulty is "Hard", apply additional checks
+        int hardBonus = hard ? hardAI(board, node, handle, playerIndex) : 0;
+        return (damageGiven - damageTaken) + hardBonus;
+    }
 
-        // Check nodes to right for wasted potential damage
-        if (column == 4) {
-            potentialDamage -= card.getCurrentRightAP();
-        } else {
-            Card cardRight = board.getCard(row, column + 1);
-            if (cardRight != null && cardRight.getOwner() == board.getComputerPlayer()) {
-                potentialDamage -= card.getCurrentRightAP();
+    // Provides an AI with hard difficulty by taking into account more factors
+    // in the placement of cards
+    private static int hardAI(Board board, int node, int handle, int playerIndex) {
+        BoardTopology topology = board.getTopology();
+        CardStore store = board.getCardStore();
+        int potentialDamage = 0;
+
+        // A side's potential damage is wasted if it faces the edge of the board
+        // or a friendly Card
+        for (int direction = 0; direction < BoardTopology.DIRECTIONS; direction++) {
+            int neighbor = topology.getNeighbor(node, direction);
+            int neighborCard = board.getCardHandle(neighbor);
+            boolean wasted = neighbor == topology.getEdge()
+                    || (neighborCard >= 0 && store.getOwnerIndex(neighborCard) == playerIndex);
+            if (!wasted) {
+                potentialDamage += store.getCurrentAP(handle, BoardTopology.getAttackSide(direction));
             }
         }
 
@@ -280,15 +159,9 @@ public class CardBattleAI {
         for (int row = 0; row < 5; row++) {
             for (int column = 0; column < 5; column++) {
                 Card card = board.getCard(row, column);
-                if (card != null && card.getType().equals("Impaired")) {
-                    if (r.nextDouble() > 0.80) {
-                        Card cardToAdd = board.drawCard(null);
-                        card.setCurrentHP(card.getCurrentHP() + (cardToAdd.getMaxHP() / 2));
-                        card.setCurrentAP(card.getCurrentUpperAP() + (cardToAdd.getCurrentUpperAP() / 2),
-                                card.getCurrentLowerAP() + (cardToAdd.getCurrentLowerAP() / 2),
-                                card.getCurrentLeftAP() + (cardToAdd.getCurrentLeftAP() / 2),
-                                card.getCurrentRightAP() + (cardToAdd.getCurrentRightAP() / 2));
-                        board.addCardToDeck(cardToAdd);
+                if (card != null && card.getMonsterType().receivesAid() && board.getDeckSize() > 0) {
+                    if (board.getRandom().getBonusStream().nextDouble() > 0.80) {
+                        applyImpairedBonus(row, column);
                         bonusHappened = true;
                     }
                 }
@@ -297,62 +170,54 @@ public class CardBattleAI {
         return bonusHappened;
     }
 
+    // Has a monster from the top of the deck come to the aid of the monster
+    // in the given Node, adding half of its HP and AP, and puts the helping
+    // monster back at the bottom of the deck
+    public void applyImpairedBonus(int row, int column) {
+        GameRecorder recorder = board.getRecorder();
+        if (recorder != null) {
+            recorder.recordImpairedBonus(row * 5 + column);
+        }
+        Card cardToAdd = board.drawCard(null);
+        board.boostCard(row, column, cardToAdd.getMaxHP() / 2, cardToAdd.getCurrentUpperAP() / 2,
+                cardToAdd.getCurrentLowerAP() / 2, cardToAdd.getCurrentLeftAP() / 2,
+                cardToAdd.getCurrentRightAP() / 2);
+        board.addCardToDeck(cardToAdd);
+    }
+
     // Applies a bonus to the AP of any charged monsters on the board that are
     // placed next to other charged monsters of the same team. Returns true if
     // it happens, false otherwise
     public boolean applyChargedBonus() {
-        boolean bonusHappened = false;
-        for (int row = 0; row < 5; row++) {
-            for (int column = 0; column < 5; column++) {
-                Card card = board.getCard(row, column);
-                if (card != null && card.getType().equals("Charged")) {
-
-                    // Check if the player has a charged monster to the left
-                    if (column > 0) {
-                        Card cardLeft = board.getCard(row, column - 1);
-                        if (cardLeft != null && cardLeft.getType().equalsIgnoreCase("Charged")
-                                && cardLeft.getOwner() == card.getOwner()) {
-                            card.addAP(2);
-                            cardLeft.addAP(2);
-                            bonusHappened = true;
-                        }
-                    }
 
-                    // Check if the player has a charged monster to the right
-                    if (column < 4) {
-                        Card cardRight = board.getCard(row, column + 1);
-                        if (cardRight != null && cardRight.getType().equalsIgnoreCase("Charged")
-                                && cardRight.getOwner() == card.getOwner()) {
-                            card.addAP(2);
-                            cardRight.addAP(2);
-                            bonusHappened = true;
-                        }
-                    }
-
-                    // Check if the player has a charged monster above
-                    if (row > 0) {
-                        Card cardAbove = board.getCard(row - 1, column);
-                        if (cardAbove != null && cardAbove.getType().equalsIgnoreCase("Charged")
-                                && cardAbove.getOwner() == card.getOwner()) {
-                            card.addAP(2);
-                            cardAbove.addAP(2);
-                            bonusHappened = true;
-                        }
-                    }
+        // Build a bitboard of charged monsters for each Player
+        CardStore store = board.getCardStore();
+        int[] chargedMasks = new int[2];
+        for (int remaining = board.getOccupiedMask(); remaining != 0; remaining &= remaining - 1) {
+            int node = Integer.numberOfTrailingZeros(remaining);
+            int card = board.getCardHandle(node);
+            if (store.getType(card).chargesNeighbors()) {
+                chargedMasks[store.getOwnerIndex(card)] |= 1 << node;
+            }
+        }
 
-                    // Check if the player has a charged monster below
-                    if (row < 4) {
-                        Card cardBelow = board.getCard(row + 1, column);
-                        if (cardBelow != null && cardBelow.getType().equalsIgnoreCase("Charged")
-                                && cardBelow.getOwner() == card.getOwner()) {
-                            card.addAP(2);
-                            cardBelow.addAP(2);
-                            bonusHappened = true;
-                        }
-                    }
+        // Each pair of adjacent friendly charged monsters is seen once from
+        // each side, and each sighting gives both monsters 2 AP
+        boolean bonusHappened = false;
+        for (int charged : chargedMasks) {
+            for (int remaining = charged; remaining != 0; remaining &= remaining - 1) {
+                int node = Integer.numberOfTrailingZeros(remaining);
+                int pairs = Integer.bitCount(board.getTopology().getNeighborMask(node) & charged);
+                if (pairs > 0) {
+                    board.boostCard(node / 5, node % 5, 0, 4 * pairs, 4 * pairs, 4 * pairs, 4 * pairs);
+                    bonusHappened = true;
                 }
             }
         }
+        GameRecorder recorder = board.getRecorder();
+        if (bonusHappened && recorder != null) {
+            recorder.recordChargedBonus();
+        }
         return bonusHappened;
     }
 
@@ -374,6 +239,7 @@ public class CardBattleAI {
 
     // Traverses the nodes on the Board and randomly creates bonus zones
     public void generateZoneBonuses() {
+        RandomGenerator r = board.getRandom().getZoneStream();
 
         for (int row = 0; row < 5; row++) {
             for (int column = 0; column < 5; column++) {
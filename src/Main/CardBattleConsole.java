@@ -1,5 +1,9 @@
 package Main;
 import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 /*
  * This class is a game client for the Card Battle data structures. When run, it will continuously play Card Battle, 
@@ -10,18 +14,61 @@ import java.io.*;
 
 public class CardBattleConsole {
 
-	// Main method runs Card Battle
+	// Main method runs Card Battle. An optional seed may be given as the first
+	// argument to make the computer's Cards and random events reproducible,
+	// and an optional speed multiplier as the second (0 skips all pauses).
+	// The option --ansi draws the board in place on an ANSI terminal,
+	// --save FILE saves the game to FILE after every turn, --load FILE
+	// resumes the game saved in FILE, and --journal FILE records every game
+	// in the journal FILE
 
 	public static void main(String[] args) throws IOException {
-		Board board = new Board(new Player("Human"), new Player("Computer"));
+		boolean ansi = false;
+		Path saveFile = null, loadFile = null, journalFile = null;
+		List<String> values = new ArrayList<String>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--ansi")) {
+				ansi = true;
+			} else if (args[i].equals("--save") && i + 1 < args.length) {
+				saveFile = Paths.get(args[++i]);
+			} else if (args[i].equals("--load") && i + 1 < args.length) {
+				loadFile = Paths.get(args[++i]);
+			} else if (args[i].equals("--journal") && i + 1 < args.length) {
+				journalFile = Paths.get(args[++i]);
+			} else {
+				values.add(args[i]);
+			}
+		}
+		if (values.size() > 1) {
+			CardBattleIO.setPacer(GamePacer.forSpeed(Double.parseDouble(values.get(1))));
+		}
+		Board board;
+		if (values.size() > 0) {
+			board = new Board(new Player("Human"), new Player("Computer"), Long.parseLong(values.get(0)));
+		} else {
+			board = new Board(new Player("Human"), new Player("Computer"));
+		}
 		CardBattleIO io = new CardBattleIO(board);
 		CardBattleAI ai = new CardBattleAI(board);
-		io.intro();
-		io.pickDifficulty();
+		io.setAnsiRendering(ansi);
+		io.setSaveFile(saveFile);
+		if (journalFile != null) {
+			io.setJournal(GameJournal.open(journalFile));
+		}
+		boolean resume = loadFile != null && io.loadGame(loadFile);
+		if (!resume) {
+			io.intro();
+			io.pickDifficulty();
+		}
 		boolean playAgain = true;
 		while (playAgain) { // Go through the game loop until the player decides
 							// to stop
-			gameLoop(board, ai, io);
+			if (resume) {
+				playRounds(board, ai, io);
+				resume = false;
+			} else {
+				gameLoop(board, ai, io);
+			}
 			CardBattleIO.wait(2);
 			if (ai.getWinner() != null) {
 				CardBattleIO.showWinner(ai.getWinner());
@@ -29,6 +76,9 @@ public class CardBattleConsole {
 			CardBattleIO.wait(2);
 			playAgain = CardBattleIO.askToPlayAgain();
 		}
+		io.finishRendering();
+		io.setJournal(null);
+		ai.shutdown();
 		System.out.println("Thank you for playing!");
 	}
 
@@ -38,8 +88,18 @@ public class CardBattleConsole {
 		board.resetBoard();
 		ai.generateZoneBonuses();
 		ai.initialDraw();
-		if (CardBattleIO.rollDice()) { // Human won the toss and has the
-										// advantage of going second each turn
+		board.setFirstPlayer(io.rollDice() ? board.getComputerPlayer() : board.getHumanPlayer());
+		playRounds(board, ai, io);
+	}
+
+	// playRounds plays the rounds of a match from the Board's current turn
+	// until the match is over
+
+	public static void playRounds(Board board, CardBattleAI ai, CardBattleIO io) {
+		io.startRecording();
+		if (board.getFirstPlayer() == board.getComputerPlayer()) { // Human won
+										// the toss and has the advantage of
+										// going second each turn
 			while (ai.getWinner() == null) {
 				if (ai.applyImpairedBonus()) {
 					CardBattleIO.showImpairedBonus();
@@ -69,6 +129,7 @@ public class CardBattleConsole {
 					io.printBoard();
 				} else {
 					CardBattleIO.roundOver();
+					io.saveGame();
 					CardBattleIO.wait(2);
 				}
 			}
@@ -103,9 +164,11 @@ public class CardBattleConsole {
 					io.printBoard();
 				} else {
 					CardBattleIO.roundOver();
+					io.saveGame();
 					CardBattleIO.wait(2);
 				}
 			}
 		}
+		io.finishRecording();
 	}
 }
@@ -1,7 +1,13 @@
 package Main;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 /*
  * This class handles the input from the keyboard for Card Battle as well as printing to the console.
@@ -10,7 +16,18 @@ import java.util.*;
 public class CardBattleIO {
 
 	private Board board;
+	private ConsoleBoardRenderer renderer;
+	private AnsiBoardRenderer ansiRenderer;
+	private Path saveFile;
+	private GameJournal journal;
+	private GameRecorder recorder;
 	private static Scanner reader;
+	private static volatile GamePacer pacer = GamePacer.NORMAL;
+
+	// Buffered stream to standard output that boards are printed through, so
+	// that each board reaches the terminal in a single write
+	private static final PrintStream boardOut = new PrintStream(
+			new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 14), false);
 
 	// Private explicit constructor prevents an invalid CardBattleIO from being
 	// created
@@ -24,34 +41,32 @@ public class CardBattleIO {
 	public CardBattleIO(Board board) {
 		reader = new Scanner(System.in);
 		this.board = board;
+		this.renderer = new ConsoleBoardRenderer(board);
 	}
 
-	// Prompts the Player to choose a difficulty level
+	// Prompts the Player to choose a difficulty level from those registered
+	// in AIStrategyRegistry
 
 	public void pickDifficulty() {
-		System.out.println("Please choose a difficulty level [1 - 3]:");
-		System.out.println("1. Easy");
-		System.out.println("2. Medium");
-		System.out.println("3. Hard");
+		List<String> difficulties = AIStrategyRegistry.getNames();
+		int count = difficulties.size();
+		System.out.println("Please choose a difficulty level [1 - " + count + "]:");
+		for (int i = 0; i < count; i++) {
+			System.out.println((i + 1) + ". " + difficulties.get(i));
+		}
 		int choice = -1;
-		while (choice < 1 || choice > 3) {
+		while (choice < 1 || choice > count) {
 			try {
 				choice = reader.nextInt();
 			} catch (InputMismatchException noInt) {
 				reader.next();
 			}
-			if (choice < 1 || choice > 3) {
-				System.out.println("Please enter a valid number [1 - 3]");
+			if (choice < 1 || choice > count) {
+				System.out.println("Please enter a valid number [1 - " + count + "]");
 			}
 		}
 		reader.reset();
-		if (choice == 1) {
-			board.setDifficulty("Easy");
-		} else if (choice == 2) {
-			board.setDifficulty("Medium");
-		} else if (choice == 3) {
-			board.setDifficulty("Hard");
-		}
+		board.setDifficulty(difficulties.get(choice - 1));
 	}
 
 	// Shows the human's cards including names and stats
@@ -120,7 +135,108 @@ public class CardBattleIO {
 	// Prints the current status of the board to the console
 
 	public void printBoard() {
-		System.out.println(board);
+		System.out.flush();
+		if (ansiRenderer != null) {
+			ansiRenderer.print(boardOut);
+		} else {
+			renderer.print(boardOut);
+		}
+	}
+
+	// Turns on drawing the board in place on an ANSI terminal, repainting
+	// only what changed after each move, or turns it off
+
+	public void setAnsiRendering(boolean ansi) {
+		if (ansi && ansiRenderer == null) {
+			ansiRenderer = new AnsiBoardRenderer(board);
+		} else if (!ansi && ansiRenderer != null) {
+			finishRendering();
+			ansiRenderer = null;
+		}
+	}
+
+	// Gives the terminal back to normal scrolling if the board was being drawn
+	// in place
+
+	public void finishRendering() {
+		if (ansiRenderer != null) {
+			System.out.flush();
+			ansiRenderer.finish(boardOut);
+		}
+	}
+
+	// Sets the file that saveGame writes to, or turns saving off if null
+
+	public void setSaveFile(Path file) {
+		saveFile = file;
+	}
+
+	// Saves the game to the save file, if there is one, and prints a message
+	// if it could not be saved
+
+	public void saveGame() {
+		if (saveFile == null) {
+			return;
+		}
+		try {
+			GameSnapshot.save(board, saveFile);
+		} catch (IOException e) {
+			System.out.println("The game could not be saved: " + e.getMessage() + "\n");
+		}
+	}
+
+	// Loads the game saved in the given file. Returns true if successful,
+	// otherwise prints a message and returns false
+
+	public boolean loadGame(Path file) {
+		try {
+			GameSnapshot.load(file, board);
+		} catch (IOException e) {
+			System.out.println("The saved game could not be loaded: " + e.getMessage() + "\n");
+			board.resetBoard();
+			return false;
+		}
+		System.out.println("Welcome back, " + board.getHumanPlayer().getName() + "! Resuming your " + board.getDifficulty()
+				+ " game at turn " + board.getTurn() + ".\n");
+		return true;
+	}
+
+	// Sets the journal that games are recorded in, closing the previous one,
+	// or stops recording games if null
+
+	public void setJournal(GameJournal gameJournal) {
+		if (journal != null) {
+			try {
+				journal.close();
+			} catch (IOException e) {
+				System.out.println("The game journal could not be closed: " + e.getMessage() + "\n");
+			}
+		}
+		journal = gameJournal;
+		recorder = gameJournal == null ? null : new GameRecorder();
+	}
+
+	// Starts recording the game from the Board's current state, if there is a
+	// journal
+
+	public void startRecording() {
+		if (recorder != null) {
+			recorder.startGame(board);
+		}
+	}
+
+	// Appends the recorded game to the journal, if there is one, and prints a
+	// message if it could not be written
+
+	public void finishRecording() {
+		if (recorder != null && recorder.isRecording()) {
+			try {
+				journal.append(recorder.finishGame());
+				journal.flush();
+			} catch (IOException e) {
+				System.out.println("The game could not be recorded: " + e.getMessage() + "\n");
+			}
+		}
 	}
 
 	// Prompts the user to pick a Card from their hand to place on the board and
@@ -191,10 +307,10 @@ public class CardBattleIO {
 	// Rolls a 20-sided dice to see who goes first. Returns true if human wins
 	// the roll, returns false otherwise
 
-	public static boolean rollDice() {
+	public boolean rollDice() {
 		System.out.println("Rolling the dice to see who goes first...\n");
 		wait(2);
-		Random r = new Random();
+		RandomGenerator r = board.getRandom().getDiceStream();
 		int humanRoll = r.nextInt(20) + 1;
 		int computerRoll = r.nextInt(20) + 1;
 		System.out.println("Your roll: " + humanRoll);
@@ -243,14 +359,17 @@ public class CardBattleIO {
 		return false;
 	}
 
-	// Waits the given number of seconds before continuing the program
+	// Waits the given number of seconds before continuing the program, at the
+	// speed of the current GamePacer
 
 	public static void wait(int seconds) {
-		long waitTime = seconds * 1000;
-		long time = System.currentTimeMillis();
-		long timesUp = time + waitTime;
-		while (System.currentTimeMillis() < timesUp) {
-		}
+		pacer.pause(seconds);
+	}
+
+	// Sets the GamePacer that times every wait
+
+	public static void setPacer(GamePacer gamePacer) {
+		pacer = gamePacer;
 	}
 
 	// Waits until the player presses the enter key before continuing the
@@ -0,0 +1,145 @@
+package Main;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * This class holds the words that generated Card names are made of: the adjectives of each monster type (from
+ * docs/adjAndType.txt) and the nouns (from docs/names.txt). A dictionary never changes once loaded, so one copy
+ * is shared by every CardGenerator and CardStore in the process. A Card's name is kept as a pair of indices, one
+ * adjective and one noun, and only turned into a String when it is shown.
+ */
+
+public final class CardDictionary {
+
+	public static final String ADJECTIVES_FILE = "docs/adjAndType.txt";
+	public static final String NOUNS_FILE = "docs/names.txt";
+
+	// Adjectives of every type, grouped by type, and the index of the first
+	// adjective of each type (with one extra entry for the end)
+
+	private final String[] adjectives;
+	private final int[] typeStarts;
+
+	private final String[] nouns;
+
+	// Loads the standard dictionary the first time it is needed
+
+	private static class StandardHolder {
+		private static final CardDictionary STANDARD = load(ADJECTIVES_FILE, NOUNS_FILE);
+	}
+
+	private CardDictionary(String[] adjectives, int[] typeStarts, String[] nouns) {
+		this.adjectives = adjectives;
+		this.typeStarts = typeStarts;
+		this.nouns = nouns;
+	}
+
+	// Returns the dictionary read from the standard files, loading it on the
+	// first call
+
+	public static CardDictionary getStandard() {
+		return StandardHolder.STANDARD;
+	}
+
+	// Reads a dictionary from the given files. The adjectives file has one
+	// "Type Adjective" pair per line, and the nouns file one noun per line. A
+	// file that cannot be read gives no words
+
+	public static CardDictionary load(String adjectivesFile, String nounsFile) {
+		MonsterType[] types = MonsterType.values();
+		List<List<String>> adjectivesByType = new ArrayList<List<String>>();
+		for (int type = 0; type < types.length; type++) {
+			adjectivesByType.add(new ArrayList<String>());
+		}
+		for (String line : readLines(adjectivesFile)) {
+			String[] words = line.trim().split("\\s+");
+			if (words.length >= 2) {
+				adjectivesByType.get(MonsterType.fromName(words[0]).ordinal()).add(words[1]);
+			}
+		}
+
+		int[] typeStarts = new int[types.length + 1];
+		List<String> adjectives = new ArrayList<String>();
+		for (int type = 0; type < types.length; type++) {
+			typeStarts[type] = adjectives.size();
+			adjectives.addAll(adjectivesByType.get(type));
+		}
+		typeStarts[types.length] = adjectives.size();
+
+		List<String> nouns = new ArrayList<String>();
+		for (String line : readLines(nounsFile)) {
+			if (!line.isEmpty()) {
+				nouns.add(line);
+			}
+		}
+		return new CardDictionary(adjectives.toArray(new String[0]), typeStarts, nouns.toArray(new String[0]));
+	}
+
+	// Returns true if the given type has at least one adjective
+
+	public boolean hasAdjectives(MonsterType type) {
+		return getAdjectiveCount(type) > 0;
+	}
+
+	// Returns the number of adjectives of the given type
+
+	public int getAdjectiveCount(MonsterType type) {
+		return typeStarts[type.ordinal() + 1] - typeStarts[type.ordinal()];
+	}
+
+	// Returns the index of the given type's adjective number n among all
+	// adjectives, the index stored for a Card's name
+
+	public int getAdjectiveIndex(MonsterType type, int n) {
+		if (n < 0 || n >= getAdjectiveCount(type)) {
+			throw new IllegalArgumentException("Invalid: Adjective does not exist");
+		}
+		return typeStarts[type.ordinal()] + n;
+	}
+
+	// Returns the adjective with the given index among all adjectives
+
+	public String getAdjective(int adjectiveIndex) {
+		return adjectives[adjectiveIndex];
+	}
+
+	// Returns the total number of adjectives
+
+	public int getAdjectiveCount() {
+		return adjectives.length;
+	}
+
+	// Returns the number of nouns
+
+	public int getNounCount() {
+		return nouns.length;
+	}
+
+	// Returns the noun with the given index
+
+	public String getNoun(int nounIndex) {
+		return nouns[nounIndex];
+	}
+
+	// Returns the Card name made of the given adjective and noun
+
+	public String getName(int adjectiveIndex, int nounIndex) {
+		return adjectives[adjectiveIndex] + " " + nouns[nounIndex];
+	}
+
+	// Private helper returns the lines of the given file, or none if it cannot
+	// be read
+
+	private static List<String> readLines(String file) {
+		try {
+			return Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			System.out.println("Error reading " + file);
+			return new ArrayList<String>();
+		}
+	}
+}
@@ -1,12 +1,9 @@
 package Main;
-import java.io.File;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Random;
-import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 /*
  * This class provides a way to generate random Cards. Options include to generate a random Card of any type or to generate a Card
@@ -19,182 +16,197 @@ public class CardGenerator {
 
 	// General information about monster cards
 
-	private static final int NUMBER_OF_TYPES = 8;
+	private static final MonsterType[] TYPES = MonsterType.values();
 	private static final int MINIMUM_HP = 20;
 
-	// List holds possible monster names
+	// Number of Cards from which generateInto works in parallel, and a
+	// constant that separates the seeds of whole decks from those of Cards
 
-	private List<String> names;
+	private static final int PARALLEL_THRESHOLD = 4096;
+	private static final long DECK_SEED = 0x5DEECE66DL;
 
-	// Map holds possible monster types as keys, maps them to Lists of all
-	// adjectives that correspond to each type
+	// Shared dictionary of the adjectives and nouns that names are made of
 
-	private Map<String, ArrayList<String>> typesAndAdjectives;
+	private CardDictionary dictionary;
 
 	// Random number generator for picking random Card attributes
 
-	private Random r;
+	private RandomGenerator r;
 
-	// Creates a CardGenerator that is ready to create Cards
+	// CardStore in which generated Cards are allocated
+
+	private CardStore store;
+
+	// Creates a CardGenerator that is ready to create Cards in a CardStore of
+	// its own
 
 	public CardGenerator() {
-		names = new ArrayList<String>();
-		typesAndAdjectives = new HashMap<String, ArrayList<String>>();
-		r = new Random();
-		readFromAdjectives();
-		readFromNames();
+		this(new CardStore(Board.CARDS_IN_DECK), new SplittableRandom());
+	}
+
+	// Creates a CardGenerator that is ready to create Cards in the given
+	// CardStore using the given random number generator
+
+	public CardGenerator(CardStore store, RandomGenerator r) {
+		this.store = store;
+		this.r = r;
+		this.dictionary = store.getDictionary();
+	}
+
+	// Returns the CardStore in which this CardGenerator allocates Cards
+
+	public CardStore getStore() {
+		return store;
+	}
+
+	// Sets the random number generator used to pick Card attributes
+
+	public void setRandom(RandomGenerator r) {
+		this.r = r;
+	}
+
+	// Gives an existing Card a new random type, name and stats, as if it had
+	// just been generated
+
+	public void rerollCard(Card card) {
+		if (card.getStore() != store) {
+			throw new IllegalArgumentException("Invalid: Card does not belong to this CardGenerator's CardStore");
+		}
+		rollCard(store, card.getHandle(), null, r);
 	}
 
 	// Generates a random Card of any possible type
 
 	public Card generateRandomCard() {
-		return generateRandomCard(null);
+		return generateRandomCard((MonsterType) null);
 	}
 
 	// Generates a random Card of a specific type
 
 	public Card generateRandomCard(String type) {
-		Card card = new Card("", "", 0, 0, 0, 0, 0, 0, null);
-		if (type == null) { // Choose a random type
-			pickType(card);
-		} else if (!typesAndAdjectives.containsKey(type)) { // Type is invalid
+		return generateRandomCard(type == null ? null : MonsterType.fromName(type));
+	}
+
+	// Generates a random Card of a specific MonsterType
+
+	public Card generateRandomCard(MonsterType type) {
+		if (type != null && !dictionary.hasAdjectives(type)) { // Type is invalid
 			throw new IllegalArgumentException("Invalid: Card type does not exist");
-		} else { // Apply the given type to the card
-			card.setType(type);
 		}
-		pickAdjective(card);
-		pickName(card);
-		pickStats(card);
-		return card;
+		int handle = store.allocate();
+		rollCard(store, handle, type, r);
+		return store.getCard(handle);
 	}
 
-	// Randomly assigns a type to this Card
+	// Generates a deck of the given number of random Cards in a new CardStore.
+	// Card number i is rolled from its own random stream derived from the
+	// seed and i, so the same seed always gives the same deck, and large
+	// decks are generated in parallel
+
+	public CardStore generateDeck(int numberOfCards, long seed) {
+		CardStore deck = new CardStore(numberOfCards);
+		generateInto(deck, numberOfCards, seed);
+		return deck;
+	}
 
-	private void pickType(Card card) {
+	// Allocates the given number of random Cards in the given CardStore, as
+	// generateDeck does, and returns the handle of the first one
 
-		String[] typeArray = new String[NUMBER_OF_TYPES];
-		typesAndAdjectives.keySet().toArray(typeArray);
-		int randomType = r.nextInt(NUMBER_OF_TYPES);
-		String type = typeArray[randomType];
-		card.setType(type);
+	public int generateInto(CardStore target, int numberOfCards, long seed) {
+		int first = target.allocate(numberOfCards);
+		IntStream cards = IntStream.range(0, numberOfCards);
+		if (numberOfCards >= PARALLEL_THRESHOLD) {
+			cards = cards.parallel();
+		}
+		cards.forEach(card -> rollCard(target, first + card, null, new SplittableRandom(cardSeed(seed, card))));
+		return first;
 	}
 
-	// Chooses a random adjective for the Card's name depending on the Card's
-	// type
+	// Returns a stream of the given number of decks of Board.CARDS_IN_DECK
+	// random Cards, seeded from this generator's random number generator
 
-	private void pickAdjective(Card card) {
+	public Stream<CardStore> generate(long numberOfDecks) {
+		return generate(numberOfDecks, r.nextLong());
+	}
 
-		List<String> adjectives = typesAndAdjectives.get(card.getType());
-		int randomAdjective = r.nextInt(adjectives.size());
-		String adjective = adjectives.get(randomAdjective);
-		card.setName(adjective);
+	// Returns a stream of the given number of decks of Board.CARDS_IN_DECK
+	// random Cards. Deck number d is generateDeck(Board.CARDS_IN_DECK, s) for
+	// a seed s derived from the given seed and d, so the stream gives the same
+	// decks in the same order whether or not it is made parallel
+
+	public Stream<CardStore> generate(long numberOfDecks, long seed) {
+		return LongStream.range(0, numberOfDecks)
+				.mapToObj(deck -> generateDeck(Board.CARDS_IN_DECK, cardSeed(seed ^ DECK_SEED, deck)));
 	}
 
-	// Randomly chooses a noun from the names database for the Card's name and
-	// adds it to the existing adjective
+	// Gives the Card with the given handle a type (random if type is null), a
+	// name and stats, drawing every random number from r
 
-	private void pickName(Card card) {
-		card.setName(card.getName() + " " + names.get(r.nextInt(names.size())));
+	private void rollCard(CardStore target, int handle, MonsterType type, RandomGenerator r) {
+		if (type == null) {
+			type = pickType(r);
+		}
+		target.setType(handle, type);
+		pickName(target, handle, type, r);
+		pickStats(target, handle, type, r);
 	}
 
-	// Assigns random stats to the Card, which vary based on Card type and level
+	// Picks a random type
 
-	private void pickStats(Card card) {
+	private MonsterType pickType(RandomGenerator r) {
+		return TYPES[r.nextInt(TYPES.length)];
+	}
 
-		// Choose a random card level and apply basic random stats based on it
+	// Names the Card with a random adjective of its type followed by a random
+	// noun from the names database. Only the dictionary indices are stored;
+	// the name String is built when it is first shown
 
-		card.setLevel(r.nextInt(5) + 1);
-		int maxHP = (MINIMUM_HP + r.nextInt(11)) * card.getLevel();
-		int upperAP = r.nextInt(11) * card.getLevel();
-		int lowerAP = r.nextInt(11) * card.getLevel();
-		int leftAP = r.nextInt(11) * card.getLevel();
-		int rightAP = r.nextInt(11) * card.getLevel();
-
-		// Durable creatures have double HP and 1/4 AP
-
-		if (card.getType().equals("Durable")) {
-			maxHP *= 2;
-			upperAP /= 4;
-			lowerAP /= 4;
-			leftAP /= 4;
-			rightAP /= 4;
-		}
+	private void pickName(CardStore target, int handle, MonsterType type, RandomGenerator r) {
+		int adjective = dictionary.getAdjectiveIndex(type, r.nextInt(dictionary.getAdjectiveCount(type)));
+		int noun = r.nextInt(dictionary.getNounCount());
+		target.setName(handle, adjective, noun);
+	}
 
-		// Impaired creatures have all stats quartered
+	// Assigns random stats to the Card, which vary based on Card type and level
 
-		if (card.getType().equals("Impaired")) {
-			maxHP /= 4;
-			upperAP /= 4;
-			lowerAP /= 4;
-			leftAP /= 4;
-			rightAP /= 4;
-		}
+	private void pickStats(CardStore target, int handle, MonsterType type, RandomGenerator r) {
 
-		// Feral creatures have 1/4 HP and double AP
+		// Choose a random card level and apply basic random stats based on it
 
-		if (card.getType().equals("Feral")) {
-			maxHP /= 4;
-			upperAP *= 2;
-			lowerAP *= 2;
-			leftAP *= 2;
-			rightAP *= 2;
-		}
+		int level = r.nextInt(5) + 1;
+		int maxHP = (MINIMUM_HP + r.nextInt(11)) * level;
+		int upperAP = r.nextInt(11) * level;
+		int lowerAP = r.nextInt(11) * level;
+		int leftAP = r.nextInt(11) * level;
+		int rightAP = r.nextInt(11) * level;
 
-		// Toxic monsters have 1/2 HP and 1/2 AP
+		// Apply the multipliers of the Card's type (Durable creatures have double
+		// HP and 1/4 AP, Impaired creatures have all stats quartered, Feral
+		// creatures have 1/4 HP and double AP, Toxic monsters have 1/2 HP and 1/2
+		// AP)
 
-		if (card.getType().equals("Toxic")) {
-			maxHP /= 2;
-			upperAP /= 2;
-			lowerAP /= 2;
-			leftAP /= 2;
-			rightAP /= 2;
-		}
+		maxHP = type.applyHPMultiplier(maxHP);
+		upperAP = type.applyAPMultiplier(upperAP);
+		lowerAP = type.applyAPMultiplier(lowerAP);
+		leftAP = type.applyAPMultiplier(leftAP);
+		rightAP = type.applyAPMultiplier(rightAP);
 
 		// Apply the generated stats to the Card
 
-		card.setMaxHP(maxHP);
-		card.setInitialAP(upperAP, lowerAP, leftAP, rightAP);
-		card.reset();
-	}
-
-	// Reads types and adjectives from adjAndType.txt file and organizes them
-	// into a map
-
-	private void readFromAdjectives() {
-		try {
-			File typesAndAdjs = new File("docs/adjAndType.txt");
-			Scanner reader = new Scanner(typesAndAdjs);
-			while (reader.hasNextLine()) {
-				String type = reader.next();
-				String adjective = reader.next();
-				if (!typesAndAdjectives.containsKey(type)) { // Add the type to
-																// the map
-					typesAndAdjectives.put(type, new ArrayList<String>());
-					typesAndAdjectives.get(type).add(adjective);
-				} else { // Add the adjective to the map
-					typesAndAdjectives.get(type).add(adjective);
-				}
-			}
-			reader.close();
-		} catch (IOException e) {
-			System.out.println("Error reading adjAndType.txt");
-		}
+		target.setLevel(handle, level);
+		target.setMaxHP(handle, maxHP);
+		target.setInitialAP(handle, upperAP, lowerAP, leftAP, rightAP);
+		target.reset(handle);
 	}
 
-	// Reads names from names.txt and places them in the names List
-
-	private void readFromNames() {
-		try {
-			File namePossibilities = new File("docs/names.txt");
-			Scanner reader = new Scanner(namePossibilities);
-			while (reader.hasNextLine()) {
-				names.add(reader.nextLine());
-			}
-			reader.close();
-		} catch (IOException e) {
-			System.out.println("Error reading names.txt");
-		}
+	// Private helper returns the seed of item number index of a batch
+	// generated from the given seed, scrambled so that neighboring items get
+	// unrelated streams
 
+	private static long cardSeed(long seed, long index) {
+		long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
 	}
-
 }
@@ -0,0 +1,397 @@
+package Main;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * This class stores the stats of many Cards in parallel primitive arrays. Each Card is addressed by an integer
+ * handle, which is its index into the arrays. Card objects are thin views over a handle in a CardStore, so rules
+ * code can work directly on the arrays while the GUI and console keep using Cards.
+ */
+
+public class CardStore {
+
+	// Indices of each side's AP within a Card's block of four AP values
+
+	public static final int UPPER = 0;
+	public static final int LOWER = 1;
+	public static final int LEFT = 2;
+	public static final int RIGHT = 3;
+	public static final int SIDES = 4;
+
+	// Owner index of a Card that has no owner
+
+	public static final int NO_OWNER = -1;
+
+	// Number of Cards allocated in this store
+
+	private int size;
+
+	// Card stats, indexed by handle. Types are MonsterType ordinals. AP arrays
+	// hold SIDES values per handle, starting at handle * SIDES. A generated
+	// name is kept as an adjective and noun index into the dictionary, and
+	// names[] caches it as a String once it is asked for (-1 indices mean the
+	// name was set as a String)
+
+	private String[] names;
+	private int[] adjectives, nouns;
+	private int[] types;
+	private int[] levels;
+	private int[] maxHP, currentHP;
+	private int[] initialAP, currentAP;
+	private int[] contaminatedTurnsLeft;
+	private int[] owners;
+
+	// Version of each Card, incremented whenever any of its stats, its name,
+	// type or owner changes, so that caches of a Card can tell it changed
+	// without comparing every stat
+
+	private int[] versions;
+
+	// Lazily created Card views, indexed by handle
+
+	private Card[] views;
+
+	// Players referred to by the owners array
+
+	private List<Player> players;
+
+	// Dictionary that name indices refer to
+
+	private CardDictionary dictionary;
+
+	// Creates an empty CardStore with room for the given number of Cards
+
+	public CardStore(int initialCapacity) {
+		int capacity = Math.max(1, initialCapacity);
+		names = new String[capacity];
+		adjectives = new int[capacity];
+		nouns = new int[capacity];
+		types = new int[capacity];
+		levels = new int[capacity];
+		maxHP = new int[capacity];
+		currentHP = new int[capacity];
+		initialAP = new int[capacity * SIDES];
+		currentAP = new int[capacity * SIDES];
+		contaminatedTurnsLeft = new int[capacity];
+		owners = new int[capacity];
+		versions = new int[capacity];
+		views = new Card[capacity];
+		players = new ArrayList<Player>();
+		dictionary = CardDictionary.getStandard();
+	}
+
+	// Allocates a blank Card in this store and returns its handle
+
+	public int allocate() {
+		if (size == names.length) {
+			grow();
+		}
+		int handle = size++;
+		names[handle] = "";
+		adjectives[handle] = -1;
+		nouns[handle] = -1;
+		types[handle] = MonsterType.NEUTRAL.ordinal();
+		owners[handle] = NO_OWNER;
+		versions[handle]++;
+		return handle;
+	}
+
+	// Allocates the given number of blank Cards in this store and returns the
+	// handle of the first one; the others follow it in order
+
+	public int allocate(int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Invalid: Cannot allocate a negative number of Cards");
+		}
+		while (size + count > names.length) {
+			grow();
+		}
+		int first = size;
+		size += count;
+		Arrays.fill(names, first, size, "");
+		Arrays.fill(adjectives, first, size, -1);
+		Arrays.fill(nouns, first, size, -1);
+		Arrays.fill(types, first, size, MonsterType.NEUTRAL.ordinal());
+		Arrays.fill(owners, first, size, NO_OWNER);
+		for (int handle = first; handle < size; handle++) {
+			versions[handle]++;
+		}
+		return first;
+	}
+
+	// Returns the number of Cards allocated in this store
+
+	public int size() {
+		return size;
+	}
+
+	// Returns the Card view of the given handle
+
+	public Card getCard(int handle) {
+		checkHandle(handle);
+		Card card = views[handle];
+		if (card == null) {
+			card = new Card(this, handle);
+			views[handle] = card;
+		}
+		return card;
+	}
+
+	// Registers a Card view created outside of getCard for the given handle
+
+	void setView(int handle, Card card) {
+		views[handle] = card;
+	}
+
+	// Returns the owner index of the given Player, registering it if it has
+	// not been seen before. Returns NO_OWNER for null
+
+	public int playerIndex(Player player) {
+		if (player == null) {
+			return NO_OWNER;
+		}
+		for (int index = 0; index < players.size(); index++) {
+			if (players.get(index) == player) {
+				return index;
+			}
+		}
+		players.add(player);
+		return players.size() - 1;
+	}
+
+	// Returns the Player with the given owner index, or null for NO_OWNER
+
+	public Player getPlayer(int ownerIndex) {
+		return ownerIndex == NO_OWNER ? null : players.get(ownerIndex);
+	}
+
+	// Returns the dictionary that the name indices of this store refer to
+
+	public CardDictionary getDictionary() {
+		return dictionary;
+	}
+
+	// Returns the name of the given Card
+
+	public String getName(int handle) {
+		String name = names[handle];
+		if (name == null) {
+			name = dictionary.getName(adjectives[handle], nouns[handle]);
+			names[handle] = name;
+		}
+		return name;
+	}
+
+	// Returns the dictionary index of the adjective in the given Card's name,
+	// or -1 if the name was set as a String
+
+	public int getAdjectiveIndex(int handle) {
+		return adjectives[handle];
+	}
+
+	// Returns the dictionary index of the noun in the given Card's name, or -1
+	// if the name was set as a String
+
+	public int getNounIndex(int handle) {
+		return nouns[handle];
+	}
+
+	// Returns the type of the given Card
+
+	public MonsterType getType(int handle) {
+		return MonsterType.fromOrdinal(types[handle]);
+	}
+
+	// Returns the level of the given Card
+
+	public int getLevel(int handle) {
+		return levels[handle];
+	}
+
+	// Returns the owner index of the given Card, or NO_OWNER
+
+	public int getOwnerIndex(int handle) {
+		return owners[handle];
+	}
+
+	// Returns the maximum HP of the given Card
+
+	public int getMaxHP(int handle) {
+		return maxHP[handle];
+	}
+
+	// Returns the current HP of the given Card
+
+	public int getCurrentHP(int handle) {
+		return currentHP[handle];
+	}
+
+	// Returns the initial AP of the given side (UPPER, LOWER, LEFT or RIGHT)
+
+	public int getInitialAP(int handle, int side) {
+		return initialAP[handle * SIDES + side];
+	}
+
+	// Returns the current AP of the given side (UPPER, LOWER, LEFT or RIGHT)
+
+	public int getCurrentAP(int handle, int side) {
+		return currentAP[handle * SIDES + side];
+	}
+
+	// Returns the number of turns left on the given Card's contamination
+
+	public int getContaminatedTurnsLeft(int handle) {
+		return contaminatedTurnsLeft[handle];
+	}
+
+	// Returns the version of the given Card, which changes whenever any of its
+	// stats, its name, type or owner changes
+
+	public int getVersion(int handle) {
+		return versions[handle];
+	}
+
+	// Sets the name of the given Card
+
+	public void setName(int handle, String name) {
+		versions[handle]++;
+		names[handle] = name;
+		adjectives[handle] = -1;
+		nouns[handle] = -1;
+	}
+
+	// Sets the name of the given Card to the given adjective and noun of the
+	// dictionary. The name String is only built if it is asked for
+
+	public void setName(int handle, int adjectiveIndex, int nounIndex) {
+		versions[handle]++;
+		names[handle] = null;
+		adjectives[handle] = adjectiveIndex;
+		nouns[handle] = nounIndex;
+	}
+
+	// Sets the type of the given Card
+
+	public void setType(int handle, MonsterType type) {
+		versions[handle]++;
+		types[handle] = type.ordinal();
+	}
+
+	// Sets the level of the given Card
+
+	public void setLevel(int handle, int level) {
+		versions[handle]++;
+		levels[handle] = level;
+	}
+
+	// Sets the owner index of the given Card
+
+	public void setOwnerIndex(int handle, int ownerIndex) {
+		versions[handle]++;
+		owners[handle] = ownerIndex;
+	}
+
+	// Sets the maximum HP of the given Card
+
+	public void setMaxHP(int handle, int hP) {
+		versions[handle]++;
+		maxHP[handle] = hP;
+	}
+
+	// Sets the current HP of the given Card
+
+	public void setCurrentHP(int handle, int hP) {
+		versions[handle]++;
+		currentHP[handle] = hP;
+	}
+
+	// Sets the initial AP of each side of the given Card
+
+	public void setInitialAP(int handle, int upperAP, int lowerAP, int leftAP, int rightAP) {
+		versions[handle]++;
+		int base = handle * SIDES;
+		initialAP[base + UPPER] = upperAP;
+		initialAP[base + LOWER] = lowerAP;
+		initialAP[base + LEFT] = leftAP;
+		initialAP[base + RIGHT] = rightAP;
+	}
+
+	// Sets the current AP of each side of the given Card
+
+	public void setCurrentAP(int handle, int upperAP, int lowerAP, int leftAP, int rightAP) {
+		versions[handle]++;
+		int base = handle * SIDES;
+		currentAP[base + UPPER] = upperAP;
+		currentAP[base + LOWER] = lowerAP;
+		currentAP[base + LEFT] = leftAP;
+		currentAP[base + RIGHT] = rightAP;
+	}
+
+	// Adds the given amount of AP to each side of the given Card
+
+	public void addAP(int handle, int amountToAdd) {
+		versions[handle]++;
+		int base = handle * SIDES;
+		for (int side = 0; side < SIDES; side++) {
+			currentAP[base + side] += amountToAdd;
+		}
+	}
+
+	// Sets the number of turns left on the given Card's contamination
+
+	public void setContaminatedTurnsLeft(int handle, int numberOfTurns) {
+		versions[handle]++;
+		contaminatedTurnsLeft[handle] = numberOfTurns;
+	}
+
+	// Resets the given Card's current stats to their initial numbers and
+	// clears its owner
+
+	public void reset(int handle) {
+		versions[handle]++;
+		currentHP[handle] = maxHP[handle];
+		System.arraycopy(initialAP, handle * SIDES, currentAP, handle * SIDES, SIDES);
+		owners[handle] = NO_OWNER;
+		contaminatedTurnsLeft[handle] = 0;
+	}
+
+	// Resets every Card in this store in one pass over the arrays
+
+	public void resetAll() {
+		System.arraycopy(maxHP, 0, currentHP, 0, size);
+		System.arraycopy(initialAP, 0, currentAP, 0, size * SIDES);
+		Arrays.fill(owners, 0, size, NO_OWNER);
+		Arrays.fill(contaminatedTurnsLeft, 0, size, 0);
+		for (int handle = 0; handle < size; handle++) {
+			versions[handle]++;
+		}
+	}
+
+	// Doubles the capacity of every array in this store
+
+	private void grow() {
+		int capacity = names.length * 2;
+		names = Arrays.copyOf(names, capacity);
+		adjectives = Arrays.copyOf(adjectives, capacity);
+		nouns = Arrays.copyOf(nouns, capacity);
+		types = Arrays.copyOf(types, capacity);
+		levels = Arrays.copyOf(levels, capacity);
+		maxHP = Arrays.copyOf(maxHP, capacity);
+		currentHP = Arrays.copyOf(currentHP, capacity);
+		initialAP = Arrays.copyOf(initialAP, capacity * SIDES);
+		currentAP = Arrays.copyOf(currentAP, capacity * SIDES);
+		contaminatedTurnsLeft = Arrays.copyOf(contaminatedTurnsLeft, capacity);
+		owners = Arrays.copyOf(owners, capacity);
+		versions = Arrays.copyOf(versions, capacity);
+		views = Arrays.copyOf(views, capacity);
+	}
+
+	// Throws an exception if the given handle does not belong to this store
+
+	private void checkHandle(int handle) {
+		if (handle < 0 || handle >= size) {
+			throw new IllegalArgumentException("Invalid: Card handle does not exist");
+		}
+	}
+}
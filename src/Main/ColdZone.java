@@ -19,12 +19,14 @@ public class ColdZone implements Zone {
 	// Applies this special Zone's bonus to the given Card
 
 	public void applyZoneBonus(Card card) {
-		if (card.getType().equalsIgnoreCase("Cold")) { // Card's HP is doubled
+		switch (card.getMonsterType()) {
+		case COLD: // Card's HP is doubled
 			card.setCurrentHP(card.getCurrentHP() * 2);
-		} else if (card.getType().equalsIgnoreCase("Hot")) { // Card's HP is
-																// quartered
+			break;
+		case HOT: // Card's HP is quartered
 			card.setCurrentHP(card.getCurrentHP() / 4);
-		} else { // Card's HP is halved
+			break;
+		default: // Card's HP is halved
 			card.setCurrentHP(card.getCurrentHP() / 2);
 		}
 	}
@@ -0,0 +1,215 @@
+package Main;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * This class draws a Board as text for the console. The picture is built in a StringBuilder that is reused from
+ * one frame to the next. Rows that never change (borders, empty cells, Zone labels) are built once, and the
+ * padded text of each Card is cached until the Card's version in the CardStore changes, so drawing a frame is
+ * mostly copying prepared strings.
+ */
+
+public class ConsoleBoardRenderer {
+
+	// Width of a whole line and of a single Node, not counting dividers
+
+	public static final int LINE_WIDTH = 131;
+	public static final int CELL_WIDTH = 25;
+
+	// Lines of text cached for each Card, from top to bottom
+
+	private static final int UPPER_AP_LINE = 0;
+	private static final int NAME_LINE = 1;
+	private static final int HP_LINE = 2;
+	private static final int SIDE_AP_LINE = 3;
+	private static final int OWNER_LINE = 4;
+	private static final int LOWER_AP_LINE = 5;
+	private static final int CARD_LINES = 6;
+
+	private static final String BORDER = repeat('-', LINE_WIDTH) + "\n";
+	private static final String EMPTY_CELL = repeat(' ', CELL_WIDTH);
+
+	private final Board board;
+	private final StringBuilder frame;
+
+	// Padded Zone labels by Zone type
+	private final Map<String, String> zoneCells;
+
+	// Cached lines of each Card by handle, the Card version they were made
+	// from, and the owner name they show
+	private String[][] cardCells;
+	private int[] cardVersions;
+	private String[] cardOwnerNames;
+
+	// Creates a ConsoleBoardRenderer that draws the given Board
+
+	public ConsoleBoardRenderer(Board board) {
+		this.board = board;
+		this.frame = new StringBuilder(LINE_WIDTH * 52);
+		this.zoneCells = new HashMap<String, String>();
+		this.cardCells = new String[0][];
+		this.cardVersions = new int[0];
+		this.cardOwnerNames = new String[0];
+	}
+
+	// Draws the current state of the Board and returns the text. The returned
+	// StringBuilder is reused by the next call
+
+	public StringBuilder render() {
+		frame.setLength(0);
+		appendPadded(frame, "Turn: " + board.getTurn(), LINE_WIDTH);
+		frame.append('\n');
+		String humanHP = board.getHumanPlayer().toString();
+		String computerHP = board.getComputerPlayer().toString();
+		frame.append(humanHP);
+		appendPadded(frame, " ", LINE_WIDTH - (humanHP.length() + computerHP.length()));
+		frame.append(computerHP);
+		frame.append("\n\n").append(BORDER);
+
+		for (int row = 0; row < 5; row++) {
+			appendCardLine(row, UPPER_AP_LINE);
+			appendZoneLine(row);
+			appendCardLine(row, NAME_LINE);
+			appendCardLine(row, HP_LINE);
+			appendCardLine(row, SIDE_AP_LINE);
+			appendEmptyLine();
+			appendCardLine(row, OWNER_LINE);
+			appendZoneLine(row);
+			appendCardLine(row, LOWER_AP_LINE);
+			frame.append(BORDER);
+		}
+		return frame;
+	}
+
+	// Draws the Board and writes it to the given stream in one write, followed
+	// by a blank line, then flushes the stream
+
+	public void print(PrintStream out) {
+		render().append('\n');
+		out.append(frame);
+		out.flush();
+	}
+
+	// Private helper appends one line of every Node in a row, showing the
+	// given cached line for Nodes holding a Card
+
+	private void appendCardLine(int row, int line) {
+		frame.append('|');
+		for (int column = 0; column < 5; column++) {
+			int handle = board.getCardHandle(row, column);
+			frame.append(handle < 0 ? EMPTY_CELL : cardCells(handle)[line]).append('|');
+		}
+		frame.append('\n');
+	}
+
+	// Private helper appends the line that shows the Zone bonus of each Node
+	// in a row
+
+	private void appendZoneLine(int row) {
+		frame.append('|');
+		for (int column = 0; column < 5; column++) {
+			Zone zone = board.getZone(row, column);
+			frame.append(zone == null ? EMPTY_CELL : zoneCell(zone)).append('|');
+		}
+		frame.append('\n');
+	}
+
+	// Private helper appends a line with only spaces and Node dividers
+
+	private void appendEmptyLine() {
+		frame.append('|');
+		for (int column = 0; column < 5; column++) {
+			frame.append(EMPTY_CELL).append('|');
+		}
+		frame.append('\n');
+	}
+
+	// Private helper returns the padded label of the given Zone
+
+	private String zoneCell(Zone zone) {
+		String cell = zoneCells.get(zone.getType());
+		if (cell == null) {
+			cell = padded("* " + zone.getType().toUpperCase() + " ZONE *", CELL_WIDTH);
+			zoneCells.put(zone.getType(), cell);
+		}
+		return cell;
+	}
+
+	// Private helper returns the cached lines of the Card with the given
+	// handle, rebuilding them if the Card has changed since they were made
+
+	private String[] cardCells(int handle) {
+		CardStore store = board.getCardStore();
+		if (handle >= cardCells.length) {
+			int capacity = Math.max(store.size(), handle + 1);
+			cardCells = Arrays.copyOf(cardCells, capacity);
+			cardVersions = Arrays.copyOf(cardVersions, capacity);
+			cardOwnerNames = Arrays.copyOf(cardOwnerNames, capacity);
+		}
+		Player owner = store.getPlayer(store.getOwnerIndex(handle));
+		String ownerName = owner.getName();
+		String[] cells = cardCells[handle];
+		if (cells != null && cardVersions[handle] == store.getVersion(handle)
+				&& ownerName.equals(cardOwnerNames[handle])) {
+			return cells;
+		}
+		if (cells == null) {
+			cells = new String[CARD_LINES];
+			cardCells[handle] = cells;
+		}
+
+		cells[UPPER_AP_LINE] = padded(Integer.toString(store.getCurrentAP(handle, CardStore.UPPER)), CELL_WIDTH);
+		cells[NAME_LINE] = padded(store.getName(handle), CELL_WIDTH);
+		String hP = store.getCurrentHP(handle) + "/" + store.getMaxHP(handle) + " HP";
+		if (store.getContaminatedTurnsLeft(handle) > 0) {
+			hP += " (Contaminated)";
+		}
+		cells[HP_LINE] = padded(hP, CELL_WIDTH);
+		String leftAttack = "  " + store.getCurrentAP(handle, CardStore.LEFT);
+		String rightAttack = store.getCurrentAP(handle, CardStore.RIGHT) + "  ";
+		StringBuilder sides = new StringBuilder(CELL_WIDTH).append(leftAttack);
+		appendPadded(sides, " ", CELL_WIDTH - (leftAttack.length() + rightAttack.length()));
+		cells[SIDE_AP_LINE] = sides.append(rightAttack).toString();
+		cells[OWNER_LINE] = padded(ownerName, CELL_WIDTH);
+		cells[LOWER_AP_LINE] = padded(Integer.toString(store.getCurrentAP(handle, CardStore.LOWER)), CELL_WIDTH);
+		cardVersions[handle] = store.getVersion(handle);
+		cardOwnerNames[handle] = ownerName;
+		return cells;
+	}
+
+	// Private helper returns the given String padded with spaces to the given
+	// width, as centered as possible
+
+	private static String padded(String toPad, int width) {
+		return appendPadded(new StringBuilder(Math.max(width, toPad.length())), toPad, width).toString();
+	}
+
+	// Private helper appends the given String padded with spaces to the given
+	// width, as centered as possible. Strings longer than the width are
+	// appended unchanged
+
+	private static StringBuilder appendPadded(StringBuilder builder, String toPad, int width) {
+		int spacing = width - toPad.length();
+		for (int space = 0; space < spacing / 2; space++) {
+			builder.append(' ');
+		}
+		builder.append(toPad);
+		for (int space = 0; space < spacing - spacing / 2; space++) {
+			builder.append(' ');
+		}
+		return builder;
+	}
+
+	// Private helper returns a String of the given character repeated the
+	// given number of times
+
+	private static String repeat(char character, int count) {
+		StringBuilder builder = new StringBuilder(count);
+		for (int index = 0; index < count; index++) {
+			builder.append(character);
+		}
+		return builder.toString();
+	}
+}
@@ -1,29 +1,45 @@
 package Main;
-import java.util.*;
+import java.util.random.RandomGenerator;
 
 /*
  * This class serves as a deck from which to draw cards in the game. It supports basic deck functions such as adding a card, 
- * drawing a card, shuffling the deck, and checking if the deck is empty.
+ * drawing a card, shuffling the deck, and checking if the deck is empty. The Deck holds the handles of its Cards in the
+ * CardStore they belong to, in a fixed-size circular array: the top of the Deck is at a cursor that moves forward as Cards
+ * are drawn, and Cards added to the bottom are written after the last Card.
  * 
  * Author: Eric Wahlquist
  */
 
 public class Deck {
 
-	// List that holds the Cards contained in this Deck
+	// CardStore that holds the Cards of this Deck
 
-	private List<Card> deck;
+	private CardStore store;
 
-	// Creates an empty Deck
+	// Handles of the Cards contained in this Deck. The top Card is at index
+	// top and the rest follow it, wrapping around the end of the array
 
-	public Deck() {
-		deck = new ArrayList<Card>();
+	private int[] deck;
+	private int top, size;
+
+	// Creates an empty Deck that can hold every Card in the given CardStore
+
+	public Deck(CardStore store) {
+		this.store = store;
+		this.deck = new int[Math.max(1, store.size())];
 	}
 
 	// Adds a Card to the bottom of this Deck
 
 	public void addCard(Card card) {
-		deck.add(card);
+		if (card.getStore() != store) {
+			throw new IllegalArgumentException("Invalid: Card does not belong to this Deck's CardStore");
+		}
+		if (size == deck.length) {
+			throw new IllegalArgumentException("Invalid: Deck is full");
+		}
+		deck[(top + size) % deck.length] = card.getHandle();
+		size++;
 	}
 
 	// Draws a Card from the top of this Deck
@@ -32,28 +48,85 @@ public class Deck {
 		if (isEmpty()) {
 			throw new IllegalArgumentException("Invalid: Deck is empty");
 		}
-		return deck.remove(0);
+		int handle = deck[top];
+		top = (top + 1) % deck.length;
+		size--;
+		return store.getCard(handle);
 	}
 
-	// Shuffles the deck
+	// Removes the Card most recently added to the bottom of this Deck and
+	// returns it
 
-	public void shuffle() {
-		Collections.shuffle(deck);
+	public Card removeLastCard() {
+		if (isEmpty()) {
+			throw new IllegalArgumentException("Invalid: Deck is empty");
+		}
+		size--;
+		return store.getCard(deck[(top + size) % deck.length]);
+	}
+
+	// Shuffles the deck in place using the given random number generator
+
+	public void shuffle(RandomGenerator r) {
+		for (int i = size - 1; i > 0; i--) {
+			int a = (top + i) % deck.length;
+			int b = (top + r.nextInt(i + 1)) % deck.length;
+			int temp = deck[a];
+			deck[a] = deck[b];
+			deck[b] = temp;
+		}
 	}
 
 	// Returns true if this Deck is empty (has no cards left)
 
 	public boolean isEmpty() {
-		return deck.isEmpty();
+		return size == 0;
+	}
+
+	// Returns the number of Cards in this Deck
+
+	public int size() {
+		return size;
+	}
+
+	// Returns the handle of the Card at the given position in this Deck,
+	// counting from 0 at the top
+
+	public int getHandle(int position) {
+		if (position < 0 || position >= size) {
+			throw new IllegalArgumentException("Invalid: Position is not in the Deck");
+		}
+		return deck[(top + position) % deck.length];
+	}
+
+	// Removes every Card from this Deck
+
+	public void clear() {
+		top = 0;
+		size = 0;
+	}
+
+	// Puts every Card of the CardStore in this Deck in handle order, replacing
+	// its current contents
+
+	public void fillWithAllCards() {
+		if (deck.length < store.size()) {
+			deck = new int[store.size()];
+		}
+		for (int handle = 0; handle < store.size(); handle++) {
+			deck[handle] = handle;
+		}
+		top = 0;
+		size = store.size();
 	}
 
 	// Resets all cards in the deck to their original state and shuffles the
-	// deck
+	// deck using the given random number generator
 
-	public void reset() {
-		for (Card card : deck) {
-			card.reset();
+	public void reset(RandomGenerator r) {
+		for (int i = 0; i < size; i++) {
+			store.reset(deck[(top + i) % deck.length]);
 		}
-		shuffle();
+		shuffle(r);
 	}
 }
@@ -0,0 +1,26 @@
+package Main;
+import java.util.random.RandomGenerator;
+
+/*
+ * This class is the Easy AI: it places a random Card from the hand in a random empty Node, drawing from the
+ * Board's AI random stream. The Node is picked straight from the Board's set of empty Nodes, so a move takes the
+ * same time however full the Board is.
+ */
+
+public class EasyStrategy implements AIStrategy {
+
+	public String getName() {
+		return "Easy";
+	}
+
+	public Move chooseMove(GameView view) {
+		Board board = view.getBoard();
+		if (board.isFull() || view.getHand().isEmpty()) {
+			return null;
+		}
+		RandomGenerator r = board.getRandom().getAIStream();
+		int slot = board.getEmptyNode(r.nextInt(board.getEmptyCount()));
+		Card cardToPlay = view.getHand().get(r.nextInt(view.getHand().size()));
+		return new Move(cardToPlay.getHandle(), slot);
+	}
+}
@@ -0,0 +1,81 @@
+package Main;
+/*
+ * This class is the Expert AI, which searches several moves ahead with an AlphaBetaSearch created for the Board
+ * of the first view. Like a human player, it does not see the opponent's hand: the search plays against a hand
+ * dealt at random from the Cards the opponent might hold. The search gets its own TranspositionTable unless one
+ * is given, which lets several Expert AIs on different threads share one table.
+ */
+
+public class ExpertStrategy implements AIStrategy {
+
+	// Positions each move may evaluate with a fixed budget, about what the
+	// default time limit allows on a desktop machine
+
+	public static final long FIXED_NODE_LIMIT = 1 << 16;
+
+	private long timeLimit = AlphaBetaSearch.DEFAULT_TIME_LIMIT_MILLIS;
+	private long nodeLimit;
+	private TranspositionTable table;
+	private AlphaBetaSearch search;
+	private Board board;
+
+	public String getName() {
+		return "Expert";
+	}
+
+	// Sets the time each move may take, in milliseconds
+
+	public void setTimeLimit(long millis) {
+		if (search != null) {
+			search.setTimeLimit(millis);
+		} else if (millis < 1) {
+			throw new IllegalArgumentException("Invalid: Time limit must be positive");
+		}
+		timeLimit = millis;
+	}
+
+	// Sets the number of positions each move may evaluate, or 0 to search
+	// until the time limit
+
+	public void setNodeLimit(long positions) {
+		if (search != null) {
+			search.setNodeLimit(positions);
+		} else if (positions < 0) {
+			throw new IllegalArgumentException("Invalid: Node limit cannot be negative");
+		}
+		nodeLimit = positions;
+	}
+
+	public void useFixedBudget() {
+		setNodeLimit(FIXED_NODE_LIMIT);
+	}
+
+	// Sets the TranspositionTable that searches created from now on keep
+	// their results in. The searches do not age a shared table, so the
+	// caller that shares it calls its newSearch once per move of the game
+
+	public void setTranspositionTable(TranspositionTable table) {
+		this.table = table;
+	}
+
+	// Returns the search used for the Board of the most recent view, or null
+	// before the first move
+
+	public AlphaBetaSearch getSearch() {
+		return search;
+	}
+
+	public Move chooseMove(GameView view) {
+		if (board != view.getBoard()) {
+			board = view.getBoard();
+			search = table == null ? new AlphaBetaSearch(board) : new AlphaBetaSearch(board, table);
+			search.setTimeLimit(timeLimit);
+			search.setNodeLimit(nodeLimit);
+		}
+		return search.findMove(view.getPlayer());
+	}
+
+	public long getPositionsEvaluated() {
+		return search == null ? 0 : search.getPositionsEvaluated();
+	}
+}
@@ -0,0 +1,179 @@
+package Main;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/*
+ * This class is an append-only file of game records made by GameRecorder. The file starts with a short header,
+ * followed by each record as its length and its bytes. Records are collected in a buffer and written to the
+ * file in large blocks, and any number of threads may append to the same GameJournal. Journals are read back
+ * through memory-mapped windows of the file, so millions of games can be scanned without copying them; a record
+ * cut short by a crash at the end of the file is ignored.
+ */
+
+public class GameJournal implements Closeable {
+
+	public static final int MAGIC = 0x43424A4E; // "CBJN"
+	public static final int VERSION = 2;
+
+	private static final int HEADER_SIZE = 8;
+	private static final int BUFFER_SIZE = 1 << 20;
+	private static final long WINDOW_SIZE = 1 << 30;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+
+	// Private constructor used by open
+
+	private GameJournal(FileChannel channel) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	}
+
+	// Opens the journal in the given file for appending, creating it if it
+	// does not exist
+
+	public static GameJournal open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			if (channel.size() == 0) {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				header.putInt(MAGIC).putInt(VERSION).flip();
+				while (header.hasRemaining()) {
+					channel.write(header);
+				}
+			} else {
+				checkHeader(channel);
+			}
+			channel.position(channel.size());
+			return new GameJournal(channel);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	// Appends the given game record (the remaining bytes of the buffer) to
+	// this journal
+
+	public synchronized void append(ByteBuffer record) throws IOException {
+		record = record.duplicate();
+		if (buffer.remaining() < 5 + record.remaining()) {
+			flush();
+		}
+		if (buffer.remaining() < 5 + record.remaining()) {
+			ByteBuffer length = ByteBuffer.allocate(5);
+			putLength(length, record.remaining());
+			length.flip();
+			writeFully(length);
+			writeFully(record);
+			return;
+		}
+		putLength(buffer, record.remaining());
+		buffer.put(record);
+	}
+
+	// Writes every appended record to the file
+
+	public synchronized void flush() throws IOException {
+		buffer.flip();
+		writeFully(buffer);
+		buffer.clear();
+	}
+
+	// Writes every appended record to the file and closes it
+
+	public synchronized void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	// Gives each complete game record in the given journal file to action, in
+	// order, and returns the number of records. Each record is a read-only
+	// view of the mapped file that is only valid during the call
+
+	public static long forEachGame(Path file, Consumer<ByteBuffer> action) throws IOException {
+		long games = 0;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			checkHeader(channel);
+			long size = channel.size();
+			long start = HEADER_SIZE;
+			while (start < size) {
+				MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start,
+						Math.min(WINDOW_SIZE, size - start));
+				int used = 0;
+				while (window.hasRemaining()) {
+					int length;
+					try {
+						length = VarintBuffer.getVarint(window);
+					} catch (BufferUnderflowException e) {
+						break;
+					}
+					if (length > window.remaining()) {
+						break;
+					}
+					ByteBuffer record = window.slice();
+					record.limit(length);
+					action.accept(record.asReadOnlyBuffer());
+					window.position(window.position() + length);
+					used = window.position();
+					games++;
+				}
+				if (used == 0) {
+
+					// Either the last record was cut short, or a single record
+					// is larger than a window
+					if (size - start > WINDOW_SIZE) {
+						throw new IOException("Invalid: Journal record is too large");
+					}
+					break;
+				}
+				start += used;
+			}
+		}
+		return games;
+	}
+
+	// Private helper throws an exception if the given channel does not start
+	// with a journal header
+
+	private static void checkHeader(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+		}
+		header.flip();
+		if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+			throw new IOException("Invalid: Not a Card Battle journal");
+		}
+		int version = header.getInt();
+		if (version != VERSION) {
+			throw new IOException("Invalid: Unsupported journal version " + version);
+		}
+	}
+
+	// Private helper writes a record length as a varint
+
+	private static void putLength(ByteBuffer target, int length) {
+		while ((length & ~0x7F) != 0) {
+			target.put((byte) ((length & 0x7F) | 0x80));
+			length >>>= 7;
+		}
+		target.put((byte) length);
+	}
+
+	private void writeFully(ByteBuffer source) throws IOException {
+		while (source.hasRemaining()) {
+			channel.write(source);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package Main;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * This class times the dramatic pauses of a console game (the dice roll, turn banners, bonus messages). Pausing
+ * parks the calling thread until the pause is over instead of spinning, so a waiting game uses no CPU. A speed
+ * multiplier shortens (or lengthens) every pause, and the INSTANT pacer skips them for automated runs.
+ */
+
+public class GamePacer {
+
+	// Pacer that plays pauses at their normal length
+
+	public static final GamePacer NORMAL = new GamePacer(1);
+
+	// Pacer that skips every pause
+
+	public static final GamePacer INSTANT = new GamePacer(Double.POSITIVE_INFINITY);
+
+	private final double speed;
+
+	// Creates a GamePacer that plays pauses the given number of times faster
+	// than normal (2 halves every pause, 0.5 doubles it)
+
+	public GamePacer(double speed) {
+		if (!(speed > 0)) {
+			throw new IllegalArgumentException("Invalid: Speed must be positive");
+		}
+		this.speed = speed;
+	}
+
+	// Returns a GamePacer for the given speed, where a speed of 0 means no
+	// pauses at all
+
+	public static GamePacer forSpeed(double speed) {
+		return speed == 0 ? INSTANT : new GamePacer(speed);
+	}
+
+	// Returns the speed multiplier of this GamePacer
+
+	public double getSpeed() {
+		return speed;
+	}
+
+	// Returns true if this GamePacer skips every pause
+
+	public boolean isInstant() {
+		return speed == Double.POSITIVE_INFINITY;
+	}
+
+	// Pauses the calling thread for the given number of seconds, adjusted for
+	// speed. Returns early if the thread is interrupted, leaving its interrupt
+	// status set
+
+	public void pause(double seconds) {
+		long nanos = (long) (TimeUnit.SECONDS.toNanos(1) * seconds / speed);
+		if (nanos <= 0) {
+			return;
+		}
+
+		// parkNanos may return before the time is up, so park again for
+		// whatever is left
+		long deadline = System.nanoTime() + nanos;
+		while (nanos > 0 && !Thread.currentThread().isInterrupted()) {
+			LockSupport.parkNanos(this, nanos);
+			nanos = deadline - System.nanoTime();
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package Main;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/*
+ * This class holds the random number generators of a single game. All of them are seeded from one seed, so the
+ * seed fully reproduces the game, and each part of the game draws from its own independent stream: drawing an
+ * extra number for one purpose (for example an AI trying moves) does not change what any other stream produces.
+ *
+ * Each stream is a SplitMix64 generator whose whole state is a single long, so the position of every stream can
+ * be read with getState and put back with setState. GameSnapshot saves it, and a loaded game goes on drawing
+ * exactly the numbers the saved game would have drawn next.
+ */
+
+public class GameRandom {
+
+	// Number of streams, in the order getState returns them
+
+	public static final int STREAM_COUNT = 7;
+
+	private final long seed;
+	private final RandomStream cardStream;
+	private final RandomStream shuffleStream;
+	private final RandomStream zoneStream;
+	private final RandomStream contaminationStream;
+	private final RandomStream bonusStream;
+	private final RandomStream aIStream;
+	private final RandomStream diceStream;
+
+	// Creates a GameRandom with a seed chosen from the system's entropy
+
+	public GameRandom() {
+		this(new SplittableRandom().nextLong());
+	}
+
+	// Creates a GameRandom whose streams are all seeded from the given seed
+
+	public GameRandom(long seed) {
+		this.seed = seed;
+		SplittableRandom root = new SplittableRandom(seed);
+		cardStream = new RandomStream(root.nextLong());
+		shuffleStream = new RandomStream(root.nextLong());
+		zoneStream = new RandomStream(root.nextLong());
+		contaminationStream = new RandomStream(root.nextLong());
+		bonusStream = new RandomStream(root.nextLong());
+		aIStream = new RandomStream(root.nextLong());
+		diceStream = new RandomStream(root.nextLong());
+	}
+
+	// Returns the seed of this GameRandom
+
+	public long getSeed() {
+		return seed;
+	}
+
+	// Returns the current state of every stream, in a new array of
+	// STREAM_COUNT longs
+
+	public long[] getState() {
+		RandomStream[] streams = streams();
+		long[] state = new long[STREAM_COUNT];
+		for (int i = 0; i < STREAM_COUNT; i++) {
+			state[i] = streams[i].state;
+		}
+		return state;
+	}
+
+	// Puts every stream back to a state returned by getState
+
+	public void setState(long[] state) {
+		if (state.length != STREAM_COUNT) {
+			throw new IllegalArgumentException("Invalid: State must have " + STREAM_COUNT + " streams");
+		}
+		RandomStream[] streams = streams();
+		for (int i = 0; i < STREAM_COUNT; i++) {
+			streams[i].state = state[i];
+		}
+	}
+
+	// Returns the stream used to generate random Cards
+
+	public RandomGenerator getCardStream() {
+		return cardStream;
+	}
+
+	// Returns the stream used to shuffle the Deck
+
+	public RandomGenerator getShuffleStream() {
+		return shuffleStream;
+	}
+
+	// Returns the stream used to place Zone bonuses
+
+	public RandomGenerator getZoneStream() {
+		return zoneStream;
+	}
+
+	// Returns the stream used for contamination damage
+
+	public RandomGenerator getContaminationStream() {
+		return contaminationStream;
+	}
+
+	// Returns the stream used to decide Impaired bonuses
+
+	public RandomGenerator getBonusStream() {
+		return bonusStream;
+	}
+
+	// Returns the stream used by the computer's AI
+
+	public RandomGenerator getAIStream() {
+		return aIStream;
+	}
+
+	// Returns the stream used to roll the dice that decide who goes first
+
+	public RandomGenerator getDiceStream() {
+		return diceStream;
+	}
+
+	// Private helper returns the streams in the order of getState
+
+	private RandomStream[] streams() {
+		return new RandomStream[] { cardStream, shuffleStream, zoneStream, contaminationStream, bonusStream, aIStream,
+				diceStream };
+	}
+
+	/*
+	 * A SplitMix64 generator, the algorithm behind SplittableRandom, with its state kept where GameRandom can save
+	 * and restore it. Every other method of RandomGenerator is built on nextLong.
+	 */
+
+	private static final class RandomStream implements RandomGenerator {
+
+		private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+		private long state;
+
+		private RandomStream(long state) {
+			this.state = state;
+		}
+
+		public long nextLong() {
+			long z = state += GOLDEN_GAMMA;
+			z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+			z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+			return z ^ (z >>> 31);
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package Main;
+import java.nio.ByteBuffer;
+
+/*
+ * This class journals everything that happens in one game on a Board as a compact binary record. The record
+ * starts with a GameSnapshot of the Board, which fixes the seed, the Deck order, the Zones and both hands, and
+ * goes on with one event per Card placed, Card drawn, Impaired or Charged bonus, and end of turn. Each end of
+ * turn stores the contamination damage rolled in it and a check of the resulting position key, so a
+ * GameReplay can re-execute the game without any random numbers and notice if it ever plays out differently.
+ * Every snapshotInterval turns another snapshot is embedded, so a replay can seek to any turn quickly.
+ *
+ * A GameRecorder can record many games one after the other; GameJournal appends finished records to a file.
+ */
+
+public class GameRecorder {
+
+	public static final int DEFAULT_SNAPSHOT_INTERVAL = 10;
+
+	// Event tags of a record
+
+	static final int START = 0;
+	static final int PLACE = 1;
+	static final int DRAW = 2;
+	static final int IMPAIRED_BONUS = 3;
+	static final int CHARGED_BONUS = 4;
+	static final int END_TURN = 5;
+	static final int SNAPSHOT = 6;
+	static final int END = 7;
+
+	private final int snapshotInterval;
+	private final VarintBuffer out;
+	private Board board;
+
+	// Creates a GameRecorder that embeds a snapshot every
+	// DEFAULT_SNAPSHOT_INTERVAL turns
+
+	public GameRecorder() {
+		this(DEFAULT_SNAPSHOT_INTERVAL);
+	}
+
+	// Creates a GameRecorder that embeds a snapshot every snapshotInterval
+	// turns, or only at the start of the game if snapshotInterval is 0
+
+	public GameRecorder(int snapshotInterval) {
+		if (snapshotInterval < 0) {
+			throw new IllegalArgumentException("Invalid: Snapshot interval cannot be negative");
+		}
+		this.snapshotInterval = snapshotInterval;
+		this.out = new VarintBuffer(4096);
+	}
+
+	// Starts recording a new game from the current state of the given Board,
+	// discarding any record that was not finished
+
+	public void startGame(Board board) {
+		if (this.board != null) {
+			this.board.setRecorder(null);
+		}
+		this.board = board;
+		out.clear();
+		out.putByte(START);
+		out.putBytes(GameSnapshot.encode(board));
+		board.setRecorder(this);
+	}
+
+	// Stops recording and returns the record of the game, ready to be read
+	// from position 0. The record stays valid until the next startGame
+
+	public ByteBuffer finishGame() {
+		if (board == null) {
+			throw new IllegalStateException("Invalid: No game is being recorded");
+		}
+		out.putByte(END);
+		board.setRecorder(null);
+		board = null;
+		return out.view();
+	}
+
+	// Returns true if a game is being recorded
+
+	public boolean isRecording() {
+		return board != null;
+	}
+
+	// Package-private hooks called by Board and CardBattleAI as the game is
+	// played
+
+	void recordPlace(int handle, int node) {
+		out.putByte(PLACE);
+		out.putVarint(handle);
+		out.putVarint(node);
+	}
+
+	void recordDraw(int playerIndex) {
+		out.putByte(DRAW);
+		out.putVarint(playerIndex);
+	}
+
+	void recordImpairedBonus(int node) {
+		out.putByte(IMPAIRED_BONUS);
+		out.putVarint(node);
+	}
+
+	void recordChargedBonus() {
+		out.putByte(CHARGED_BONUS);
+	}
+
+	void recordEndTurn(Board board) {
+		out.putByte(END_TURN);
+		int damaged = board.getContaminationDamageMask();
+		out.putVarint(damaged);
+		for (int remaining = damaged; remaining != 0; remaining &= remaining - 1) {
+			out.putVarint(board.getContaminationDamage(Integer.numberOfTrailingZeros(remaining)));
+		}
+		out.putInt((int) board.getPositionKey());
+		if (snapshotInterval > 0 && board.getTurn() % snapshotInterval == 0) {
+			out.putByte(SNAPSHOT);
+			out.putBytes(GameSnapshot.encode(board));
+		}
+	}
+}
@@ -0,0 +1,241 @@
+package Main;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/*
+ * This class re-executes a game record made by GameRecorder against a Board, at full speed and without any
+ * random numbers: Cards are placed and drawn as recorded, bonuses are applied through CardBattleAI to the
+ * recorded Nodes, and each end of turn deals the recorded contamination damage. After each end of turn the
+ * position key is checked against the record, so a replay that plays out differently from the original game
+ * (for example because the rules changed) stops with an exception. seekToTurn jumps to any turn by loading the
+ * nearest embedded snapshot and replaying from there.
+ */
+
+public class GameReplay {
+
+	private final ByteBuffer record;
+	private final Board board;
+	private final CardBattleAI ai;
+	private final int[] rolls;
+	private ByteBuffer in;
+	private boolean finished;
+
+	// Creates a replay of the given game record on a new Board, positioned at
+	// the start of the game
+
+	public GameReplay(ByteBuffer record) throws IOException {
+		this(record, null);
+	}
+
+	// Creates a replay of the given game record on the given Board, replacing
+	// its whole state, positioned at the start of the game. Reusing a Board
+	// saves creating one for each replay of a large journal
+
+	public GameReplay(ByteBuffer record, Board board) throws IOException {
+		this.record = record.duplicate();
+		this.in = this.record.duplicate();
+		this.rolls = new int[BoardTopology.STANDARD.getNodeCount() + 1];
+		try {
+			if (in.get() != GameRecorder.START) {
+				throw new IOException("Invalid: Journal record does not start with a snapshot");
+			}
+			this.board = GameSnapshot.decode(VarintBuffer.getBytes(in), board);
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Invalid: Corrupt journal record", e);
+		}
+		this.ai = new CardBattleAI(this.board);
+	}
+
+	// Returns the Board the game is replayed on
+
+	public Board getBoard() {
+		return board;
+	}
+
+	// Returns true if every event of the record has been replayed
+
+	public boolean isFinished() {
+		return finished;
+	}
+
+	// Replays the next event of the record. Returns false if the record has
+	// no more events
+
+	public boolean step() throws IOException {
+		if (finished) {
+			return false;
+		}
+		try {
+			int tag = in.get();
+			switch (tag) {
+			case GameRecorder.PLACE: {
+				Card card = board.getCardStore().getCard(VarintBuffer.getVarint(in));
+				int node = VarintBuffer.getVarint(in);
+				if (!board.placeCard(card, node / 5, node % 5)) {
+					throw new IllegalStateException("Invalid: Replay placed a Card in an occupied Node");
+				}
+				break;
+			}
+			case GameRecorder.DRAW: {
+				int playerIndex = VarintBuffer.getVarint(in);
+				board.drawCard(playerIndex == Board.HUMAN_INDEX ? board.getHumanPlayer() : board.getComputerPlayer());
+				break;
+			}
+			case GameRecorder.IMPAIRED_BONUS: {
+				int node = VarintBuffer.getVarint(in);
+				ai.applyImpairedBonus(node / 5, node % 5);
+				break;
+			}
+			case GameRecorder.CHARGED_BONUS:
+				ai.applyChargedBonus();
+				break;
+			case GameRecorder.END_TURN: {
+				int damaged = VarintBuffer.getVarint(in);
+				for (int remaining = damaged; remaining != 0; remaining &= remaining - 1) {
+					rolls[Integer.numberOfTrailingZeros(remaining)] = VarintBuffer.getVarint(in);
+				}
+				board.endTurn(rolls);
+				if (board.getContaminationDamageMask() != damaged || (int) board.getPositionKey() != in.getInt()) {
+					throw new IllegalStateException(
+							"Invalid: Replay diverged from the journal at turn " + (board.getTurn() - 1));
+				}
+				break;
+			}
+			case GameRecorder.SNAPSHOT:
+				VarintBuffer.getBytes(in);
+				break;
+			case GameRecorder.END:
+				finished = true;
+				return false;
+			default:
+				throw new IOException("Invalid: Unknown journal event " + tag);
+			}
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Invalid: Corrupt journal record", e);
+		}
+		return true;
+	}
+
+	// Replays every remaining event of the record
+
+	public void playToEnd() throws IOException {
+		while (step()) {
+		}
+	}
+
+	// Brings the Board to the start of the given turn (or to the end of the
+	// game if it ended before then), loading the nearest embedded snapshot at
+	// or before the turn unless the replay is already closer
+
+	public void seekToTurn(int turn) throws IOException {
+		ByteBuffer scan = record.duplicate();
+		int bestPosition = -1;
+		int bestTurn = -1;
+		try {
+			while (scan.hasRemaining()) {
+				int position = scan.position();
+				int tag = scan.get();
+				if (tag == GameRecorder.START || tag == GameRecorder.SNAPSHOT) {
+					ByteBuffer snapshot = VarintBuffer.getBytes(scan);
+					int snapshotTurn = GameSnapshot.getTurn(snapshot);
+					if (snapshotTurn > turn) {
+						break;
+					}
+					bestPosition = position;
+					bestTurn = snapshotTurn;
+				} else if (!skipEvent(scan, tag)) {
+					break;
+				}
+			}
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Invalid: Corrupt journal record", e);
+		}
+
+		// Load the snapshot unless the replay is between it and the start of
+		// the turn
+		if (bestPosition >= 0 && (board.getTurn() >= turn || board.getTurn() < bestTurn || finished)) {
+			in = record.duplicate();
+			in.position(bestPosition + 1);
+			GameSnapshot.decode(VarintBuffer.getBytes(in), board);
+			finished = false;
+		}
+		while (board.getTurn() < turn && step()) {
+		}
+	}
+
+	// Private helper moves past the payload of the given event without
+	// replaying it. Returns false at the end of the record
+
+	private static boolean skipEvent(ByteBuffer in, int tag) throws IOException {
+		switch (tag) {
+		case GameRecorder.PLACE:
+			VarintBuffer.getVarint(in);
+			VarintBuffer.getVarint(in);
+			return true;
+		case GameRecorder.DRAW:
+		case GameRecorder.IMPAIRED_BONUS:
+			VarintBuffer.getVarint(in);
+			return true;
+		case GameRecorder.CHARGED_BONUS:
+			return true;
+		case GameRecorder.END_TURN:
+			for (int remaining = VarintBuffer.getVarint(in); remaining != 0; remaining &= remaining - 1) {
+				VarintBuffer.getVarint(in);
+			}
+			in.getInt();
+			return true;
+		case GameRecorder.END:
+			return false;
+		default:
+			throw new IOException("Invalid: Unknown journal event " + tag);
+		}
+	}
+
+	// Replays journals from the command line. GameReplay FILE replays every
+	// game in the journal and reports the speed; GameReplay FILE GAME TURN
+	// prints the board of game number GAME (from 0) at the start of TURN
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1 && args.length != 3) {
+			System.out.println("Usage: GameReplay journal [game turn]");
+			return;
+		}
+		Path file = Paths.get(args[0]);
+		if (args.length == 3) {
+			long game = Long.parseLong(args[1]);
+			int turn = Integer.parseInt(args[2]);
+			long[] index = { 0 };
+			GameJournal.forEachGame(file, record -> {
+				if (index[0]++ == game) {
+					try {
+						GameReplay replay = new GameReplay(record);
+						replay.seekToTurn(turn);
+						System.out.println("Game " + game + ", turn " + replay.getBoard().getTurn() + "\n");
+						System.out.print(replay.getBoard());
+					} catch (IOException e) {
+						System.out.println("Game " + game + " could not be replayed: " + e.getMessage());
+					}
+				}
+			});
+			return;
+		}
+		long[] turns = { 0 };
+		Board board = new Board(new Player("Human"), new Player("Computer"));
+		long start = System.nanoTime();
+		long games = GameJournal.forEachGame(file, record -> {
+			try {
+				GameReplay replay = new GameReplay(record, board);
+				replay.playToEnd();
+				turns[0] += replay.getBoard().getTurn() - 1;
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("Replayed %d games (%d turns) in %.2f s: %.0f games/sec%n", games, turns[0], seconds,
+				games / seconds);
+	}
+}
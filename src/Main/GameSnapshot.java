@@ -0,0 +1,331 @@
+package Main;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * This class saves the complete state of a game on a Board to a compact, versioned binary snapshot and loads it
+ * back: every Card's stats, both Players' names, HP and hands, the Deck and discard pile in order, the Zones, the
+ * Cards on the Board, the turn number, the difficulty, the Player who moves first and the game's seed. Numbers are
+ * written as variable-length integers, current stats as their difference from the initial ones, and generated
+ * names as indices into the CardDictionary, so a typical game takes well under 2 KB.
+ *
+ * The state of each random stream and the order of the Board's set of empty Nodes are saved too, so a loaded
+ * game draws the same contamination damage, bonuses and AI choices that the saved game would have drawn next,
+ * and loading the same snapshot twice always plays out the same way.
+ */
+
+public final class GameSnapshot {
+
+	public static final int MAGIC = 0x43425356; // "CBSV"
+	public static final int VERSION = 3;
+
+	private static final int INITIAL_CAPACITY = 2048;
+
+	// Prevents GameSnapshot from being instantiated
+
+	private GameSnapshot() {
+	}
+
+	// Writes a snapshot of the given Board to the given file, replacing it
+	// only once the whole snapshot has been written
+
+	public static void save(Board board, Path file) throws IOException {
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			save(board, channel);
+			channel.force(false);
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	// Writes a snapshot of the given Board to the given channel
+
+	public static void save(Board board, WritableByteChannel channel) throws IOException {
+		ByteBuffer buffer = encode(board);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	// Returns a snapshot of the given Board, ready to be read from position 0
+
+	public static ByteBuffer encode(Board board) {
+		VarintBuffer out = new VarintBuffer();
+		CardStore store = board.getCardStore();
+		CardDictionary dictionary = store.getDictionary();
+		out.putInt(MAGIC);
+		out.putVarint(VERSION);
+		out.putVarint(dictionary.getAdjectiveCount());
+		out.putVarint(dictionary.getNounCount());
+		out.putLong(board.getRandom().getSeed());
+		out.putVarint(board.getTurn());
+		out.putString(board.getDifficulty());
+		out.putVarint(board.getPlayerIndex(board.getFirstPlayer()));
+		for (long state : board.getRandom().getState()) {
+			out.putLong(state);
+		}
+		for (Player player : players(board)) {
+			out.putString(player.getName());
+			out.putSigned(player.getHP());
+		}
+
+		// Cards, by handle
+		out.putVarint(store.size());
+		for (int handle = 0; handle < store.size(); handle++) {
+			int adjective = store.getAdjectiveIndex(handle);
+			out.putVarint(adjective + 1);
+			if (adjective < 0) {
+				out.putString(store.getName(handle));
+			} else {
+				out.putVarint(store.getNounIndex(handle));
+			}
+			out.putVarint(store.getType(handle).ordinal());
+			out.putVarint(store.getLevel(handle));
+			out.putSigned(store.getMaxHP(handle));
+			out.putSigned(store.getCurrentHP(handle) - store.getMaxHP(handle));
+			for (int side = 0; side < CardStore.SIDES; side++) {
+				out.putSigned(store.getInitialAP(handle, side));
+			}
+			for (int side = 0; side < CardStore.SIDES; side++) {
+				out.putSigned(store.getCurrentAP(handle, side) - store.getInitialAP(handle, side));
+			}
+			out.putVarint(store.getContaminatedTurnsLeft(handle));
+			out.putVarint(store.getOwnerIndex(handle) + 1);
+		}
+
+		// Hands, Deck and discard pile, in order
+		for (Player player : players(board)) {
+			out.putVarint(player.getHand().size());
+			for (Card card : player.getHand()) {
+				out.putVarint(card.getHandle());
+			}
+		}
+		for (Deck pile : new Deck[] { board.getDeck(), board.getDiscardPile() }) {
+			out.putVarint(pile.size());
+			for (int position = 0; position < pile.size(); position++) {
+				out.putVarint(pile.getHandle(position));
+			}
+		}
+
+		// Zones and the Cards on the Board
+		out.putVarint(board.getHotZoneMask());
+		out.putVarint(board.getColdZoneMask());
+		out.putVarint(board.getOccupiedMask());
+		for (int remaining = board.getOccupiedMask(); remaining != 0; remaining &= remaining - 1) {
+			out.putVarint(board.getCardHandle(Integer.numberOfTrailingZeros(remaining)));
+		}
+
+		// The empty Nodes in the order the Easy AI picks from
+		for (int index = 0; index < board.getEmptyCount(); index++) {
+			out.putVarint(board.getEmptyNode(index));
+		}
+		return out.finish();
+	}
+
+	// Returns the turn number saved in the given snapshot, without changing
+	// the buffer's position
+
+	public static int getTurn(ByteBuffer snapshot) throws IOException {
+		ByteBuffer in = snapshot.duplicate();
+		try {
+			if (in.getInt() != MAGIC || VarintBuffer.getVarint(in) != VERSION) {
+				throw new IOException("Invalid: Not a Card Battle snapshot");
+			}
+			VarintBuffer.getVarint(in);
+			VarintBuffer.getVarint(in);
+			in.getLong();
+			return VarintBuffer.getVarint(in);
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Invalid: Corrupt Card Battle snapshot", e);
+		}
+	}
+
+	// Reads a snapshot from the given file into a new Board
+
+	public static Board load(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return decode(readAll(channel), null);
+		}
+	}
+
+	// Reads a snapshot from the given file into the given Board, replacing
+	// its whole state
+
+	public static void load(Path file, Board board) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			decode(readAll(channel), board);
+		}
+	}
+
+	// Reads a snapshot from the given channel into the given Board, replacing
+	// its whole state
+
+	public static void load(ReadableByteChannel channel, Board board) throws IOException {
+		decode(readAll(channel), board);
+	}
+
+	// Reads a snapshot from the given buffer into the given Board, replacing
+	// its whole state. If board is null, a new Board is created for the
+	// snapshot. Returns the Board. If the snapshot turns out to be corrupt
+	// after the Board has started to change, the Board must be reset or loaded
+	// again before it is used
+
+	public static Board decode(ByteBuffer in, Board board) throws IOException {
+		try {
+			return read(in, board);
+		} catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new IOException("Invalid: Corrupt Card Battle snapshot", e);
+		}
+	}
+
+	// Private helper does the work of decode
+
+	private static Board read(ByteBuffer in, Board board) throws IOException {
+		if (in.remaining() < 4 || in.getInt() != MAGIC) {
+			throw new IOException("Invalid: Not a Card Battle snapshot");
+		}
+		int version = VarintBuffer.getVarint(in);
+		if (version != VERSION) {
+			throw new IOException("Invalid: Unsupported snapshot version " + version);
+		}
+		int adjectiveCount = VarintBuffer.getVarint(in);
+		int nounCount = VarintBuffer.getVarint(in);
+		long seed = in.getLong();
+		int turn = VarintBuffer.getVarint(in);
+		String difficulty = VarintBuffer.getString(in);
+		int firstPlayerIndex = VarintBuffer.getVarint(in);
+		long[] randomState = new long[GameRandom.STREAM_COUNT];
+		for (int i = 0; i < randomState.length; i++) {
+			randomState[i] = in.getLong();
+		}
+		String[] names = new String[2];
+		int[] hP = new int[2];
+		for (int index = 0; index < 2; index++) {
+			names[index] = VarintBuffer.getString(in);
+			hP[index] = VarintBuffer.getSigned(in);
+		}
+
+		if (board == null) {
+			board = new Board(new Player(names[Board.HUMAN_INDEX]), new Player(names[Board.COMPUTER_INDEX]), seed);
+		}
+		CardStore store = board.getCardStore();
+		CardDictionary dictionary = store.getDictionary();
+		if (adjectiveCount != dictionary.getAdjectiveCount() || nounCount != dictionary.getNounCount()) {
+			throw new IOException("Invalid: Snapshot was saved with a different name dictionary");
+		}
+		int cardCount = VarintBuffer.getVarint(in);
+		if (cardCount != store.size()) {
+			throw new IOException("Invalid: Snapshot has " + cardCount + " Cards, Board has " + store.size());
+		}
+		if (firstPlayerIndex < 0 || firstPlayerIndex > Board.COMPUTER_INDEX) {
+			throw new IOException("Invalid: Corrupt Card Battle snapshot");
+		}
+
+		board.beginRestore(seed, randomState, turn, difficulty, firstPlayerIndex);
+		Player[] players = players(board);
+		for (int index = 0; index < 2; index++) {
+			players[index].setName(names[index]);
+			players[index].addHP(hP[index] - players[index].getHP());
+		}
+
+		for (int handle = 0; handle < cardCount; handle++) {
+			int adjective = VarintBuffer.getVarint(in) - 1;
+			if (adjective < 0) {
+				store.setName(handle, VarintBuffer.getString(in));
+			} else {
+				int noun = VarintBuffer.getVarint(in);
+				if (adjective >= adjectiveCount || noun >= nounCount) {
+					throw new IOException("Invalid: Corrupt Card Battle snapshot");
+				}
+				store.setName(handle, adjective, noun);
+			}
+			store.setType(handle, MonsterType.fromOrdinal(VarintBuffer.getVarint(in)));
+			store.setLevel(handle, VarintBuffer.getVarint(in));
+			int maxHP = VarintBuffer.getSigned(in);
+			store.setMaxHP(handle, maxHP);
+			store.setCurrentHP(handle, maxHP + VarintBuffer.getSigned(in));
+			int upperAP = VarintBuffer.getSigned(in);
+			int lowerAP = VarintBuffer.getSigned(in);
+			int leftAP = VarintBuffer.getSigned(in);
+			int rightAP = VarintBuffer.getSigned(in);
+			store.setInitialAP(handle, upperAP, lowerAP, leftAP, rightAP);
+			store.setCurrentAP(handle, upperAP + VarintBuffer.getSigned(in), lowerAP + VarintBuffer.getSigned(in), leftAP + VarintBuffer.getSigned(in),
+					rightAP + VarintBuffer.getSigned(in));
+			store.setContaminatedTurnsLeft(handle, VarintBuffer.getVarint(in));
+			int owner = VarintBuffer.getVarint(in) - 1;
+			if (owner < -1 || owner > Board.COMPUTER_INDEX) {
+				throw new IOException("Invalid: Corrupt Card Battle snapshot");
+			}
+			store.setOwnerIndex(handle, owner);
+		}
+
+		for (Player player : players) {
+			int size = VarintBuffer.getVarint(in);
+			for (int i = 0; i < size; i++) {
+				player.getHand().add(store.getCard(VarintBuffer.getVarint(in)));
+			}
+		}
+		for (Deck pile : new Deck[] { board.getDeck(), board.getDiscardPile() }) {
+			int size = VarintBuffer.getVarint(in);
+			for (int i = 0; i < size; i++) {
+				pile.addCard(store.getCard(VarintBuffer.getVarint(in)));
+			}
+		}
+
+		int hotZones = VarintBuffer.getVarint(in);
+		int coldZones = VarintBuffer.getVarint(in);
+		int occupied = VarintBuffer.getVarint(in);
+		if (((hotZones | coldZones | occupied) & ~Board.FULL_MASK) != 0) {
+			throw new IOException("Invalid: Corrupt Card Battle snapshot");
+		}
+		for (int remaining = hotZones | coldZones; remaining != 0; remaining &= remaining - 1) {
+			int node = Integer.numberOfTrailingZeros(remaining);
+			Zone zone = (hotZones & (1 << node)) != 0 ? new HotZone() : new ColdZone();
+			board.generateZoneBonus(zone, node / 5, node % 5);
+		}
+		for (int remaining = occupied; remaining != 0; remaining &= remaining - 1) {
+			board.restoreCard(Integer.numberOfTrailingZeros(remaining), VarintBuffer.getVarint(in));
+		}
+		for (int index = 0; index < board.getEmptyCount(); index++) {
+			board.restoreEmptyNode(index, VarintBuffer.getVarint(in));
+		}
+		board.endRestore();
+		return board;
+	}
+
+	// Private helper returns the Players of a Board by index
+
+	private static Player[] players(Board board) {
+		return new Player[] { board.getHumanPlayer(), board.getComputerPlayer() };
+	}
+
+	// Private helper reads everything left in the given channel
+
+	private static ByteBuffer readAll(ReadableByteChannel channel) throws IOException {
+		int capacity = INITIAL_CAPACITY;
+		if (channel instanceof FileChannel) {
+			FileChannel file = (FileChannel) channel;
+			capacity = (int) Math.max(1, Math.min(Integer.MAX_VALUE - 8, file.size() - file.position() + 1));
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(capacity);
+		while (channel.read(buffer) >= 0) {
+			if (!buffer.hasRemaining()) {
+				ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+				buffer.flip();
+				larger.put(buffer);
+				buffer = larger;
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+}
@@ -0,0 +1,62 @@
+package Main;
+import java.util.List;
+
+/*
+ * This class is what an AIStrategy sees when it is asked for a move: the Board and the Player whose turn it is.
+ * A strategy may make and take back moves on the Board while it thinks (see Board.makeMove), but must leave it
+ * exactly as it found it.
+ */
+
+public final class GameView {
+
+	private final Board board;
+	private final Player player;
+
+	// Creates a GameView of the given Board for the given Player to move
+
+	public GameView(Board board, Player player) {
+		if (board.getPlayerIndex(player) < 0) {
+			throw new IllegalArgumentException("Invalid: Player is not on this Board");
+		}
+		this.board = board;
+		this.player = player;
+	}
+
+	// Returns the Board
+
+	public Board getBoard() {
+		return board;
+	}
+
+	// Returns the Player to move
+
+	public Player getPlayer() {
+		return player;
+	}
+
+	// Returns the index of the Player to move (Board.HUMAN_INDEX or
+	// Board.COMPUTER_INDEX)
+
+	public int getPlayerIndex() {
+		return board.getPlayerIndex(player);
+	}
+
+	// Returns the Player to move's opponent
+
+	public Player getOpponent() {
+		return player == board.getHumanPlayer() ? board.getComputerPlayer() : board.getHumanPlayer();
+	}
+
+	// Returns the Player to move's hand
+
+	public List<Card> getHand() {
+		return player.getHand();
+	}
+
+	// Returns true if the Player to move moves second this turn, so the turn
+	// ends after their move
+
+	public boolean isLastInTurn() {
+		return board.getFirstPlayer() != player;
+	}
+}
@@ -0,0 +1,253 @@
+package Main;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * This class picks moves for the Medium and Hard AIs. It first generates every candidate placement (each empty
+ * Node with each Card in the Player's hand, Nodes in order and Cards in hand order), then scores them and keeps
+ * the best one. Scoring can be split over a ForkJoinPool: the candidates are cut into one contiguous block per
+ * thread, each thread keeps the first best candidate of its block, and the blocks are compared in order, so the
+ * earliest of the best candidates wins exactly as it does when scoring on one thread.
+ *
+ * The normal score is the greedy damage score of CardBattleAI.greedyScore. The enriched score instead places
+ * the Card and ends the turn through the real rules (with average contamination damage), ranks the candidate by
+ * the resulting position and falls back on the greedy score to break ties. Enriched scoring makes and takes
+ * back moves, so each thread keeps its own copy of the Board, loaded from a GameSnapshot once per move. If the
+ * thread that calls findMove is interrupted, every block stops before findMove throws, so no block of one move
+ * is still running when the next move reuses its Worker.
+ */
+
+public class GreedyScorer {
+
+	private final Board board;
+	private final ForkJoinPool pool;
+	private final Worker[] workers;
+	private final AtomicBoolean cancelled = new AtomicBoolean();
+	private boolean enriched;
+
+	// Candidates of the current move, encoded as handle * 32 + Node
+
+	private int[] candidates = new int[128];
+	private int candidateCount;
+
+	// Creates a GreedyScorer for the given Board that scores on the thread
+	// that calls findMove
+
+	public GreedyScorer(Board board) {
+		this(board, 1);
+	}
+
+	// Creates a GreedyScorer for the given Board that scores on the given
+	// number of threads
+
+	public GreedyScorer(Board board, int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Invalid: Thread count must be positive");
+		}
+		this.board = board;
+		this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+		this.workers = new Worker[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Worker(cancelled);
+		}
+	}
+
+	// Sets whether candidates are scored by the position after the end of
+	// the turn instead of by the greedy damage score alone
+
+	public void setEnriched(boolean enriched) {
+		this.enriched = enriched;
+	}
+
+	// Returns true if candidates are scored by the position after the end of
+	// the turn
+
+	public boolean isEnriched() {
+		return enriched;
+	}
+
+	// Returns the number of candidates the most recent findMove scored
+
+	public int getCandidateCount() {
+		return candidateCount;
+	}
+
+	// Returns the best move for the given Player to make now by the medium
+	// (or, if hard is true, the hard) score, or null if the Player cannot
+	// place a Card. The Board is left as it was. If the calling thread is
+	// interrupted, scoring stops and throws CancellationException, leaving
+	// the thread's interrupt status set
+
+	public Move findMove(Player player, boolean hard) {
+		int playerIndex = board.getPlayerIndex(player);
+		candidateCount = generateCandidates(player);
+		if (candidateCount == 0) {
+			return null;
+		}
+
+		if (pool == null) {
+			workers[0].score(board, candidates, 0, candidateCount, playerIndex, hard, enriched);
+			if (Thread.currentThread().isInterrupted()) {
+				throw new CancellationException("Invalid: Scoring was interrupted");
+			}
+			return toMove(workers[0].best);
+		}
+		ByteBuffer snapshot = enriched ? GameSnapshot.encode(board) : null;
+		int[] moves = candidates;
+		int count = candidateCount;
+		cancelled.set(false);
+		List<ForkJoinTask<Void>> tasks = new ArrayList<ForkJoinTask<Void>>();
+		for (int i = 0; i < workers.length; i++) {
+			Worker worker = workers[i];
+			int from = (int) ((long) count * i / workers.length);
+			int to = (int) ((long) count * (i + 1) / workers.length);
+			tasks.add(pool.submit(() -> {
+				worker.score(snapshot == null ? board : worker.load(snapshot.duplicate()), moves, from, to,
+						playerIndex, hard, snapshot != null);
+				return null;
+			}));
+		}
+		try {
+			for (ForkJoinTask<Void> task : tasks) {
+				task.get();
+			}
+		} catch (InterruptedException e) {
+			stopWorkers(tasks);
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Invalid: Scoring was interrupted");
+		} catch (ExecutionException e) {
+			stopWorkers(tasks);
+			throw new IllegalStateException("Invalid: Scoring failed", e.getCause());
+		}
+
+		// Blocks are in candidate order, so only a strictly better score
+		// replaces an earlier block's best
+		Worker best = null;
+		for (Worker worker : workers) {
+			if (worker.best >= 0 && (best == null || worker.bestScore > best.bestScore)) {
+				best = worker;
+			}
+		}
+		return toMove(best.best);
+	}
+
+	// Stops the threads of this GreedyScorer
+
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	// Private helper tells every block to stop and waits until all of the
+	// given tasks have finished, so the Workers can be used again
+
+	private void stopWorkers(List<ForkJoinTask<Void>> tasks) {
+		cancelled.set(true);
+		for (ForkJoinTask<Void> task : tasks) {
+			task.quietlyJoin();
+		}
+	}
+
+	// Private helper fills candidates with every placement of a Card in the
+	// given Player's hand in an empty Node and returns their number
+
+	private int generateCandidates(Player player) {
+		if (board.isFull()) {
+			return 0;
+		}
+		List<Card> hand = player.getHand();
+		int capacity = hand.size() * board.getTopology().getNodeCount();
+		if (candidates.length < capacity) {
+			candidates = new int[capacity];
+		}
+		int count = 0;
+		for (int remaining = ~board.getOccupiedMask() & Board.FULL_MASK; remaining != 0; remaining &= remaining - 1) {
+			int node = Integer.numberOfTrailingZeros(remaining);
+			for (int i = 0; i < hand.size(); i++) {
+				candidates[count++] = hand.get(i).getHandle() << 5 | node;
+			}
+		}
+		return count;
+	}
+
+	// Private helper decodes a candidate
+
+	private static Move toMove(int move) {
+		return new Move(move >>> 5, move & 31);
+	}
+
+	/*
+	 * A scoring thread's result for its block of candidates, and its copy of the Board for enriched scoring.
+	 */
+
+	private static class Worker {
+
+		private final AtomicBoolean cancelled;
+		private Board copy;
+		private int[] contaminationDamage;
+		private int best;
+		private long bestScore;
+
+		// Creates a Worker that stops scoring once cancelled is set
+
+		private Worker(AtomicBoolean cancelled) {
+			this.cancelled = cancelled;
+		}
+
+		// Loads the position in the given snapshot into this Worker's copy of
+		// the Board and returns it
+
+		private Board load(ByteBuffer snapshot) {
+			try {
+				copy = GameSnapshot.decode(snapshot, copy);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			return copy;
+		}
+
+		// Scores candidates from (inclusive) to to (exclusive) on the given
+		// Board and keeps the first one with the highest score. Stops early if
+		// scoring is cancelled or the thread is interrupted
+
+		private void score(Board board, int[] candidates, int from, int to, int playerIndex, boolean hard,
+				boolean enriched) {
+			best = -1;
+			bestScore = Long.MIN_VALUE;
+			if (enriched && contaminationDamage == null) {
+				contaminationDamage = new int[board.getTopology().getNodeCount() + 1];
+				Arrays.fill(contaminationDamage, AlphaBetaSearch.AVERAGE_CONTAMINATION_DAMAGE);
+			}
+			CardStore store = board.getCardStore();
+			for (int i = from; i < to; i++) {
+				if (cancelled.get() || Thread.currentThread().isInterrupted()) {
+					return;
+				}
+				int move = candidates[i];
+				int handle = move >>> 5;
+				int node = move & 31;
+				long score = CardBattleAI.greedyScore(board, node, handle, playerIndex, hard);
+				if (enriched) {
+					board.makeMove(store.getCard(handle), node / 5, node % 5);
+					board.makeEndTurn(contaminationDamage);
+					score += (long) AlphaBetaSearch.evaluate(board, playerIndex) << 32;
+					board.unmakeEndTurn();
+					board.unmakeMove();
+				}
+				if (score > bestScore) {
+					best = move;
+					bestScore = score;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package Main;
+/*
+ * This class is the Medium AI, which places the Card that gives the most damage for the least taken, and the
+ * Hard AI, which also counts the damage each side could deal later. Moves are picked by a GreedyScorer, which is
+ * created for the Board of the first view unless one is given.
+ */
+
+public class GreedyStrategy implements AIStrategy {
+
+	private final boolean hard;
+	private GreedyScorer scorer;
+	private Board board;
+
+	// Creates the Medium AI, or the Hard AI if hard is true
+
+	public GreedyStrategy(boolean hard) {
+		this.hard = hard;
+	}
+
+	// Creates the Medium AI, or the Hard AI if hard is true, that picks moves
+	// on the given Board with the given GreedyScorer, which must have been
+	// created for that Board
+
+	public GreedyStrategy(boolean hard, Board board, GreedyScorer scorer) {
+		this.hard = hard;
+		this.board = board;
+		this.scorer = scorer;
+	}
+
+	public String getName() {
+		return hard ? "Hard" : "Medium";
+	}
+
+	// Returns the GreedyScorer used for the Board of the most recent view, or
+	// null before the first move
+
+	public GreedyScorer getScorer() {
+		return scorer;
+	}
+
+	public Move chooseMove(GameView view) {
+		if (board != view.getBoard()) {
+			shutdown();
+			board = view.getBoard();
+			scorer = new GreedyScorer(board);
+		}
+		return scorer.findMove(view.getPlayer(), hard);
+	}
+
+	public long getPositionsEvaluated() {
+		return scorer == null ? 0 : scorer.getCandidateCount();
+	}
+
+	public void shutdown() {
+		if (scorer != null) {
+			scorer.shutdown();
+		}
+	}
+}
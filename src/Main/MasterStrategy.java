@@ -0,0 +1,97 @@
+package Main;
+/*
+ * This class is the Master AI, which plays out many random games from each move with a MonteCarloSearch created
+ * for the Board of the first view.
+ */
+
+public class MasterStrategy implements AIStrategy {
+
+	// Iterations each thread may run per move with a fixed budget, about
+	// what the default time limit allows on a desktop machine
+
+	public static final int FIXED_ITERATION_LIMIT = 4096;
+
+	private int threads;
+	private long timeLimit = MonteCarloSearch.DEFAULT_TIME_LIMIT_MILLIS;
+	private int iterationLimit;
+	private MonteCarloSearch search;
+	private Board board;
+
+	// Creates the Master AI, searching on every available core
+
+	public MasterStrategy() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	// Creates the Master AI, searching on the given number of threads
+
+	public MasterStrategy(int threads) {
+		setThreads(threads);
+	}
+
+	public String getName() {
+		return "Master";
+	}
+
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Invalid: Thread count must be positive");
+		}
+		this.threads = threads;
+	}
+
+	// Sets the time each move may take, in milliseconds
+
+	public void setTimeLimit(long millis) {
+		if (search != null) {
+			search.setTimeLimit(millis);
+		} else if (millis < 1) {
+			throw new IllegalArgumentException("Invalid: Time limit must be positive");
+		}
+		timeLimit = millis;
+	}
+
+	// Sets the number of iterations each thread runs per move, or 0 to run
+	// until the time limit
+
+	public void setIterationLimit(int iterations) {
+		if (search != null) {
+			search.setIterationLimit(iterations);
+		} else if (iterations < 0) {
+			throw new IllegalArgumentException("Invalid: Iteration limit cannot be negative");
+		}
+		iterationLimit = iterations;
+	}
+
+	public void useFixedBudget() {
+		setIterationLimit(FIXED_ITERATION_LIMIT);
+	}
+
+	// Returns the search used for the Board of the most recent view, or null
+	// before the first move
+
+	public MonteCarloSearch getSearch() {
+		return search;
+	}
+
+	public Move chooseMove(GameView view) {
+		if (board != view.getBoard()) {
+			shutdown();
+			board = view.getBoard();
+			search = new MonteCarloSearch(board, threads);
+			search.setTimeLimit(timeLimit);
+			search.setIterationLimit(iterationLimit);
+		}
+		return search.findMove(view.getPlayer());
+	}
+
+	public long getPositionsEvaluated() {
+		return search == null ? 0 : search.getPlayouts();
+	}
+
+	public void shutdown() {
+		if (search != null) {
+			search.shutdown();
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package Main;
+/*
+ * This class wraps an AIStrategy and records every decision it makes in a StrategyMetrics: the time chooseMove
+ * took, the positions the strategy reports it evaluated, and the bytes the calling thread allocated. Strategies
+ * that think on other threads (such as the Master AI with more than one thread) only have the calling thread's
+ * allocation counted. Several MeteredStrategy wrappers may share one StrategyMetrics, for example one per game
+ * of a simulation.
+ */
+
+public class MeteredStrategy implements AIStrategy {
+
+	private final AIStrategy strategy;
+	private final StrategyMetrics metrics;
+
+	// Creates a MeteredStrategy that records the given strategy's decisions
+	// in new StrategyMetrics
+
+	public MeteredStrategy(AIStrategy strategy) {
+		this(strategy, new StrategyMetrics(strategy.getName()));
+	}
+
+	// Creates a MeteredStrategy that records the given strategy's decisions
+	// in the given StrategyMetrics
+
+	public MeteredStrategy(AIStrategy strategy, StrategyMetrics metrics) {
+		if (strategy == null || metrics == null) {
+			throw new IllegalArgumentException("Invalid: Strategy and metrics cannot be null");
+		}
+		this.strategy = strategy;
+		this.metrics = metrics;
+	}
+
+	// Returns the wrapped strategy
+
+	public AIStrategy getStrategy() {
+		return strategy;
+	}
+
+	// Returns the StrategyMetrics decisions are recorded in
+
+	public StrategyMetrics getMetrics() {
+		return metrics;
+	}
+
+	public String getName() {
+		return strategy.getName();
+	}
+
+	public Move chooseMove(GameView view) {
+		long bytesBefore = StrategyMetrics.allocatedBytes();
+		long start = System.nanoTime();
+		Move move = strategy.chooseMove(view);
+		long nanos = System.nanoTime() - start;
+		long bytes = bytesBefore < 0 ? -1 : StrategyMetrics.allocatedBytes() - bytesBefore;
+		metrics.record(nanos, strategy.getPositionsEvaluated(), bytes);
+		return move;
+	}
+
+	public long getPositionsEvaluated() {
+		return strategy.getPositionsEvaluated();
+	}
+
+	public void setThreads(int threads) {
+		strategy.setThreads(threads);
+	}
+
+	public void useFixedBudget() {
+		strategy.useFixedBudget();
+	}
+
+	public void shutdown() {
+		strategy.shutdown();
+	}
+}
@@ -0,0 +1,97 @@
+package Main;
+/*
+ * This enum lists the monster types of Card Battle. Each type carries the multipliers applied to a new Card's
+ * randomly rolled HP and AP, and flags for the special rules that apply to it. Types are written in
+ * docs/adjAndType.txt and on screen by their names ("Toxic", "Charged", ...).
+ */
+
+public enum MonsterType {
+
+	// Name, HP multiplier (numerator / denominator), AP multiplier (numerator
+	// / denominator)
+
+	NEUTRAL("Neutral", 1, 1, 1, 1),
+	HOT("Hot", 1, 1, 1, 1),
+	COLD("Cold", 1, 1, 1, 1),
+	CHARGED("Charged", 1, 1, 1, 1),
+	DURABLE("Durable", 2, 1, 1, 4),
+	IMPAIRED("Impaired", 1, 4, 1, 4),
+	FERAL("Feral", 1, 4, 2, 1),
+	TOXIC("Toxic", 1, 2, 1, 2);
+
+	// All types, indexed by ordinal
+
+	private static final MonsterType[] TYPES = values();
+
+	private final String name;
+	private final int hPNumerator, hPDenominator;
+	private final int aPNumerator, aPDenominator;
+
+	private MonsterType(String name, int hPNumerator, int hPDenominator, int aPNumerator, int aPDenominator) {
+		this.name = name;
+		this.hPNumerator = hPNumerator;
+		this.hPDenominator = hPDenominator;
+		this.aPNumerator = aPNumerator;
+		this.aPDenominator = aPDenominator;
+	}
+
+	// Returns the type with the given ordinal
+
+	public static MonsterType fromOrdinal(int ordinal) {
+		return TYPES[ordinal];
+	}
+
+	// Returns the type with the given name, ignoring case
+
+	public static MonsterType fromName(String name) {
+		for (MonsterType type : TYPES) {
+			if (type.name.equalsIgnoreCase(name)) {
+				return type;
+			}
+		}
+		throw new IllegalArgumentException("Invalid: Card type does not exist");
+	}
+
+	// Returns the name of this type as shown to players
+
+	public String getName() {
+		return name;
+	}
+
+	// Applies this type's multiplier to a newly rolled maximum HP
+
+	public int applyHPMultiplier(int hP) {
+		return hP * hPNumerator / hPDenominator;
+	}
+
+	// Applies this type's multiplier to a newly rolled AP
+
+	public int applyAPMultiplier(int aP) {
+		return aP * aPNumerator / aPDenominator;
+	}
+
+	// Returns true if this type contaminates the enemies it attacks
+
+	public boolean contaminatesOnAttack() {
+		return this == TOXIC;
+	}
+
+	// Returns true if this type gains AP next to friendly monsters of the
+	// same type
+
+	public boolean chargesNeighbors() {
+		return this == CHARGED;
+	}
+
+	// Returns true if this type may be aided by monsters from the deck
+
+	public boolean receivesAid() {
+		return this == IMPAIRED;
+	}
+
+	// Returns the name of this type
+
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,489 @@
+package Main;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * This class finds moves for the Master AI with Monte Carlo Tree Search over hidden information. The searching
+ * Player sees the Board and their own hand, but not the opponent's hand or the Deck order, so every iteration
+ * first deals the opponent a hand sampled from the unseen Cards (the Deck plus the opponent's real hand). It
+ * then walks down the tree, choosing among the moves legal in that deal by UCB1 with availability counts,
+ * expands one new move, and plays random moves through the real rules (including the end of each turn, with
+ * random contamination rolls) for a few turns. The result is backed up along the path.
+ *
+ * Iterations are spread over a ForkJoinPool with root parallelism: each worker keeps its own copy of the Board
+ * and its own tree, and their root statistics are added up at the end. Each worker's Board is loaded from a
+ * GameSnapshot once per move, and every iteration after that makes and takes back moves on it with
+ * makeMove/makeEndTurn, while the tree lives in preallocated primitive arrays, so playouts allocate nothing.
+ * If the thread that calls findMove is interrupted, every worker stops before findMove throws, so the next search
+ * never shares a worker with one that is still running.
+ */
+
+public class MonteCarloSearch {
+
+	public static final long DEFAULT_TIME_LIMIT_MILLIS = 100;
+
+	// Number of turns each playout lasts before its position is scored
+
+	private static final int PLAYOUT_TURNS = 6;
+
+	// UCB1 exploration constant and the scale of the position score that is
+	// turned into a result between 0 and 1 when a playout does not finish
+
+	private static final double EXPLORATION = 0.7;
+	private static final double SCORE_SCALE = 150.0;
+
+	// Number of tree nodes each worker can hold, and number of iterations
+	// between checks of the clock
+
+	private static final int TREE_CAPACITY = 1 << 16;
+	private static final int CLOCK_INTERVAL = 64;
+
+	private final Board board;
+	private final ForkJoinPool pool;
+	private final Worker[] workers;
+	private final AtomicBoolean cancelled = new AtomicBoolean();
+	private long timeLimitNanos;
+	private int iterationLimit;
+	private long playouts;
+
+	// Creates a MonteCarloSearch for the given Board that runs on every
+	// available core
+
+	public MonteCarloSearch(Board board) {
+		this(board, Runtime.getRuntime().availableProcessors());
+	}
+
+	// Creates a MonteCarloSearch for the given Board that runs on the given
+	// number of threads. With one thread, the search runs on the thread that
+	// calls findMove
+
+	public MonteCarloSearch(Board board, int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Invalid: Thread count must be positive");
+		}
+		this.board = board;
+		this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+		this.workers = new Worker[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Worker(cancelled);
+		}
+		setTimeLimit(DEFAULT_TIME_LIMIT_MILLIS);
+	}
+
+	// Sets the time each call to findMove may take, in milliseconds
+
+	public void setTimeLimit(long millis) {
+		if (millis < 1) {
+			throw new IllegalArgumentException("Invalid: Time limit must be positive");
+		}
+		timeLimitNanos = millis * 1000000L;
+	}
+
+	// Sets the number of iterations each thread runs per move, or 0 to run
+	// until the time limit. With one thread, a fixed number of iterations
+	// makes the search reproducible
+
+	public void setIterationLimit(int iterations) {
+		if (iterations < 0) {
+			throw new IllegalArgumentException("Invalid: Iteration limit cannot be negative");
+		}
+		iterationLimit = iterations;
+	}
+
+	// Returns the number of playouts the most recent findMove ran
+
+	public long getPlayouts() {
+		return playouts;
+	}
+
+	// Returns the best move for the given Player to make now, or null if the
+	// Player cannot place a Card. The Board is left as it was. If the calling
+	// thread is interrupted, the search stops and throws
+	// CancellationException, leaving the thread's interrupt status set
+
+	public Move findMove(Player player) {
+		if (board.isFull() || player.getHand().isEmpty()) {
+			return null;
+		}
+		int mover = board.getPlayerIndex(player);
+		ByteBuffer snapshot = GameSnapshot.encode(board);
+		int[] unseen = unseenCards(1 - mover);
+		long deadline = System.nanoTime() + timeLimitNanos;
+		long seed = board.getRandom().getAIStream().nextLong();
+		int iterations = iterationLimit;
+
+		if (pool == null) {
+			workers[0].search(snapshot, mover, unseen, deadline, iterations, seed);
+			if (Thread.currentThread().isInterrupted()) {
+				throw new CancellationException("Invalid: Search was interrupted");
+			}
+			return bestMove(player);
+		}
+		cancelled.set(false);
+		List<ForkJoinTask<Void>> tasks = new ArrayList<ForkJoinTask<Void>>();
+		for (int i = 0; i < workers.length; i++) {
+			Worker worker = workers[i];
+			long workerSeed = seed + i * 0x9E3779B97F4A7C15L;
+			tasks.add(pool.submit(() -> {
+				worker.search(snapshot.duplicate(), mover, unseen, deadline, iterations, workerSeed);
+				return null;
+			}));
+		}
+		try {
+			for (ForkJoinTask<Void> task : tasks) {
+				task.get();
+			}
+		} catch (InterruptedException e) {
+			stopWorkers(tasks);
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Invalid: Search was interrupted");
+		} catch (ExecutionException e) {
+			stopWorkers(tasks);
+			throw new IllegalStateException("Invalid: Search failed", e.getCause());
+		}
+		return bestMove(player);
+	}
+
+	// Private helper tells every worker to stop and waits until all of the
+	// given tasks have finished, so the workers can be used again
+
+	private void stopWorkers(List<ForkJoinTask<Void>> tasks) {
+		cancelled.set(true);
+		for (ForkJoinTask<Void> task : tasks) {
+			task.quietlyJoin();
+		}
+	}
+
+	// Stops the threads of this MonteCarloSearch
+
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	// Private helper adds up the visits of each root move over every worker
+	// and returns the given Player's most visited move
+
+	private Move bestMove(Player player) {
+
+		// Add up the visits of each root move over every worker and pick the
+		// most visited one
+		int[] visits = new int[(board.getCardStore().size() + 1) << 5];
+		playouts = 0;
+		for (Worker worker : workers) {
+			playouts += worker.iterations;
+			for (int child = worker.firstChild[0]; child >= 0; child = worker.nextSibling[child]) {
+				visits[worker.move[child]] += worker.visits[child];
+			}
+		}
+		int best = -1;
+		for (Card card : player.getHand()) {
+			for (int remaining = ~board.getOccupiedMask() & Board.FULL_MASK; remaining != 0; remaining &= remaining - 1) {
+				int move = card.getHandle() << 5 | Integer.numberOfTrailingZeros(remaining);
+				if (best < 0 || visits[move] > visits[best]) {
+					best = move;
+				}
+			}
+		}
+		return new Move(best >>> 5, best & 31);
+	}
+
+	// Private helper returns the handles of the Cards the given opponent
+	// might hold: their hand and the Deck
+
+	private int[] unseenCards(int opponent) {
+		Player player = opponent == Board.HUMAN_INDEX ? board.getHumanPlayer() : board.getComputerPlayer();
+		Deck deck = board.getDeck();
+		int[] unseen = new int[player.getHand().size() + deck.size()];
+		int count = 0;
+		for (Card card : player.getHand()) {
+			unseen[count++] = card.getHandle();
+		}
+		for (int position = 0; position < deck.size(); position++) {
+			unseen[count++] = deck.getHandle(position);
+		}
+		return unseen;
+	}
+
+	/*
+	 * A search thread's copy of the Board and its tree. Tree nodes are kept in parallel arrays: the move that
+	 * leads to each node (handle * 32 + Node, or pass), its parent, first child and next sibling, the Player who
+	 * made the move, and its visit, availability and reward totals. Node 0 is the root.
+	 */
+
+	private static class Worker {
+
+		private final AtomicBoolean cancelled;
+		private Board board;
+		private CardStore store;
+		private SplittableRandom random;
+		private int pass;
+
+		// Tree arrays, allocated by the first search
+
+		private int[] move, parent, firstChild, nextSibling, player, visits, availability;
+		private double[] reward;
+		private int nodeCount;
+		private long iterations;
+
+		// Legal moves of the current position, stamps that mark which moves
+		// are legal and which of them already have a child, and the path
+		// from the root
+
+		private int[] legal, legalStamps, childStamps;
+		private int stamp;
+		private int[] path = new int[64];
+		private int[] unseen, dealt, contaminationDamage;
+
+		// Creates a Worker that stops searching once cancelled is set
+
+		private Worker(AtomicBoolean cancelled) {
+			this.cancelled = cancelled;
+		}
+
+		// Runs iterations from the position in the given snapshot until the
+		// deadline, or until limit iterations if limit is not 0. Stops early
+		// if the search is cancelled or the thread is interrupted
+
+		private void search(ByteBuffer snapshot, int mover, int[] unseenCards, long deadline, int limit, long seed) {
+			try {
+				if (board == null) {
+					board = GameSnapshot.decode(snapshot, null);
+					store = board.getCardStore();
+					pass = store.size() << 5;
+					legal = new int[(store.size() + 1) << 5];
+					legalStamps = new int[legal.length];
+					childStamps = new int[legal.length];
+					contaminationDamage = new int[board.getTopology().getNodeCount() + 1];
+					move = new int[TREE_CAPACITY];
+					parent = new int[TREE_CAPACITY];
+					firstChild = new int[TREE_CAPACITY];
+					nextSibling = new int[TREE_CAPACITY];
+					player = new int[TREE_CAPACITY];
+					visits = new int[TREE_CAPACITY];
+					availability = new int[TREE_CAPACITY];
+					reward = new double[TREE_CAPACITY];
+				} else {
+					GameSnapshot.decode(snapshot, board);
+				}
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			random = new SplittableRandom(seed);
+			unseen = unseenCards.clone();
+			dealt = new int[unseen.length];
+			int opponent = 1 - mover;
+			int handSize = (opponent == Board.HUMAN_INDEX ? board.getHumanPlayer() : board.getComputerPlayer())
+					.getHand().size();
+			boolean lastInTurn = board.getPlayerIndex(board.getFirstPlayer()) != mover;
+
+			nodeCount = 1;
+			firstChild[0] = -1;
+			nextSibling[0] = -1;
+			parent[0] = -1;
+			visits[0] = 0;
+			iterations = 0;
+			while (limit == 0 || iterations < limit) {
+				if (cancelled.get() || Thread.currentThread().isInterrupted()) {
+					break;
+				}
+				if (limit == 0 && iterations % CLOCK_INTERVAL == 0 && iterations > 0 && System.nanoTime() > deadline) {
+					break;
+				}
+				deal(opponent, handSize);
+				iterate(mover, lastInTurn);
+				iterations++;
+			}
+		}
+
+		// Private helper deals the opponent a random hand from the unseen Cards
+		// with a partial Fisher-Yates shuffle
+
+		private void deal(int opponent, int handSize) {
+			int count = Math.min(handSize, unseen.length);
+			for (int i = 0; i < count; i++) {
+				int j = i + random.nextInt(unseen.length - i);
+				int handle = unseen[j];
+				unseen[j] = unseen[i];
+				unseen[i] = handle;
+				dealt[i] = handle;
+			}
+			board.setHand(opponent, dealt, count);
+		}
+
+		// Private helper runs one iteration: selection, expansion, playout and
+		// backup, and takes back every move it made
+
+		private void iterate(int rootMover, boolean rootLastInTurn) {
+			int base = board.getJournalDepth();
+			int mover = rootMover;
+			boolean lastInTurn = rootLastInTurn;
+			int node = 0;
+			int depth = 0;
+			path[depth++] = 0;
+			int turnsLeft = PLAYOUT_TURNS;
+
+			// Walk down the tree while every legal move has been tried
+			boolean expanded = false;
+			while (!isOver() && depth < path.length) {
+				int count = legalMoves(mover);
+				stamp++;
+				for (int i = 0; i < count; i++) {
+					legalStamps[legal[i]] = stamp;
+				}
+				int untried = count;
+				int bestChild = -1;
+				double bestValue = Double.NEGATIVE_INFINITY;
+				for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+					if (legalStamps[move[child]] == stamp) {
+						childStamps[move[child]] = stamp;
+						untried--;
+						availability[child]++;
+						double value = reward[child] / visits[child]
+								+ EXPLORATION * Math.sqrt(Math.log(availability[child]) / visits[child]);
+						if (value > bestValue) {
+							bestValue = value;
+							bestChild = child;
+						}
+					}
+				}
+				if (untried > 0 && nodeCount < TREE_CAPACITY) {
+
+					// Expand a random untried move
+					int pick = random.nextInt(untried);
+					int chosen = -1;
+					for (int i = 0; i < count; i++) {
+						if (childStamps[legal[i]] != stamp && pick-- == 0) {
+							chosen = legal[i];
+							break;
+						}
+					}
+					int child = nodeCount++;
+					move[child] = chosen;
+					parent[child] = node;
+					player[child] = mover;
+					visits[child] = 0;
+					availability[child] = 1;
+					reward[child] = 0;
+					firstChild[child] = -1;
+					nextSibling[child] = firstChild[node];
+					firstChild[node] = child;
+					bestChild = child;
+					expanded = true;
+				}
+				if (bestChild < 0) {
+					break;
+				}
+				if (apply(move[bestChild], lastInTurn)) {
+					turnsLeft--;
+				}
+				node = bestChild;
+				path[depth++] = node;
+				mover = 1 - mover;
+				lastInTurn = !lastInTurn;
+				if (expanded) {
+					break;
+				}
+			}
+
+			// Play random moves for a few turns
+			while (!isOver() && turnsLeft > 0) {
+				if (apply(randomMove(mover), lastInTurn)) {
+					turnsLeft--;
+				}
+				mover = 1 - mover;
+				lastInTurn = !lastInTurn;
+			}
+
+			// Back up the result from the root mover's point of view
+			double result = result(rootMover);
+			for (int i = 0; i < depth; i++) {
+				int n = path[i];
+				visits[n]++;
+				reward[n] += player[n] == rootMover ? result : 1 - result;
+			}
+			board.unmakeTo(base);
+		}
+
+		// Private helper fills legal with the moves of the Player with the
+		// given index (just a pass if they cannot place a Card) and returns
+		// their number
+
+		private int legalMoves(int playerIndex) {
+			List<Card> hand = (playerIndex == Board.HUMAN_INDEX ? board.getHumanPlayer() : board.getComputerPlayer())
+					.getHand();
+			int count = 0;
+			int empty = ~board.getOccupiedMask() & Board.FULL_MASK;
+			for (int i = 0; i < hand.size(); i++) {
+				int handle = hand.get(i).getHandle() << 5;
+				for (int remaining = empty; remaining != 0; remaining &= remaining - 1) {
+					legal[count++] = handle | Integer.numberOfTrailingZeros(remaining);
+				}
+			}
+			if (count == 0) {
+				legal[count++] = pass;
+			}
+			return count;
+		}
+
+		// Private helper returns a random move of the Player with the given
+		// index, each Card in their hand and each empty Node being equally
+		// likely, or a pass if they cannot place a Card
+
+		private int randomMove(int playerIndex) {
+			List<Card> hand = (playerIndex == Board.HUMAN_INDEX ? board.getHumanPlayer() : board.getComputerPlayer())
+					.getHand();
+			if (hand.isEmpty() || board.isFull()) {
+				return pass;
+			}
+			int handle = hand.get(random.nextInt(hand.size())).getHandle();
+			return handle << 5 | board.getEmptyNode(random.nextInt(board.getEmptyCount()));
+		}
+
+		// Private helper makes a move (or passes), then ends the turn with
+		// random contamination rolls if the move was the last of the turn.
+		// Returns true if the turn ended
+
+		private boolean apply(int code, boolean lastInTurn) {
+			if (code != pass) {
+				int node = code & 31;
+				board.makeMove(store.getCard(code >>> 5), node / 5, node % 5);
+			}
+			if (lastInTurn) {
+				for (int remaining = board.getOccupiedMask(); remaining != 0; remaining &= remaining - 1) {
+					contaminationDamage[Integer.numberOfTrailingZeros(remaining)] = random.nextInt(5) + 3;
+				}
+				board.makeEndTurn(contaminationDamage);
+			}
+			return lastInTurn;
+		}
+
+		// Private helper returns true if either Player has run out of HP
+
+		private boolean isOver() {
+			return board.getHumanPlayer().getHP() <= 0 || board.getComputerPlayer().getHP() <= 0;
+		}
+
+		// Private helper returns the result of the position for the Player
+		// with the given index: 1 for a win, 0 for a loss, 0.5 for a tie, and
+		// a score between 0 and 1 from the position if the game is not over
+
+		private double result(int playerIndex) {
+			int own = (playerIndex == Board.HUMAN_INDEX ? board.getHumanPlayer() : board.getComputerPlayer()).getHP();
+			int other = (playerIndex == Board.HUMAN_INDEX ? board.getComputerPlayer() : board.getHumanPlayer()).getHP();
+			if (own <= 0 || other <= 0) {
+				return own > 0 ? 1 : other > 0 ? 0 : 0.5;
+			}
+			return 1 / (1 + Math.exp(-AlphaBetaSearch.evaluate(board, playerIndex) / SCORE_SCALE));
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package Main;
+/*
+ * This class represents a move in Card Battle: placing the Card with a given handle in a given Node of the Board.
+ */
+
+public final class Move {
+
+	private final int handle;
+	private final int node;
+
+	// Creates a Move that places the Card with the given handle in the given
+	// Node
+
+	public Move(int handle, int node) {
+		this.handle = handle;
+		this.node = node;
+	}
+
+	// Returns the handle of the Card to place
+
+	public int getHandle() {
+		return handle;
+	}
+
+	// Returns the number of the Node to place the Card in
+
+	public int getNode() {
+		return node;
+	}
+
+	// Returns the row of the Node to place the Card in
+
+	public int getRow() {
+		return node / 5;
+	}
+
+	// Returns the column of the Node to place the Card in
+
+	public int getColumn() {
+		return node % 5;
+	}
+
+	public boolean equals(Object other) {
+		return other instanceof Move && ((Move) other).handle == handle && ((Move) other).node == node;
+	}
+
+	public int hashCode() {
+		return handle * 31 + node;
+	}
+
+	// Returns a String that describes this Move
+
+	public String toString() {
+		return "Card " + handle + " to Node " + node;
+	}
+}
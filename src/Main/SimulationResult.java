@@ -0,0 +1,138 @@
+package Main;
+/*
+ * This class collects the outcome of a batch of simulated Card Battle games: how many games each side won, how
+ * many were ties or never finished, and how many turns each game lasted. Results of batches played in parallel
+ * are combined with merge.
+ */
+
+public class SimulationResult {
+
+	private final int turnLimit;
+	private int humanWins, computerWins, ties, unfinished;
+	private long totalTurns;
+	private long elapsedNanos;
+
+	// Number of games that ended after each number of turns, from 0 to
+	// turnLimit
+	private final long[] turnHistogram;
+
+	// Creates an empty result for games of at most turnLimit turns
+
+	public SimulationResult(int turnLimit) {
+		this.turnLimit = turnLimit;
+		this.turnHistogram = new long[turnLimit + 1];
+	}
+
+	// Records one finished game. winner is Board.HUMAN_INDEX,
+	// Board.COMPUTER_INDEX, -1 for a tie, or -2 if the game was stopped before
+	// anyone won
+
+	public void addGame(int winner, int turns) {
+		if (winner == Board.HUMAN_INDEX) {
+			humanWins++;
+		} else if (winner == Board.COMPUTER_INDEX) {
+			computerWins++;
+		} else if (winner == -1) {
+			ties++;
+		} else {
+			unfinished++;
+		}
+		totalTurns += turns;
+		turnHistogram[Math.min(turns, turnLimit)]++;
+	}
+
+	// Adds the games of another result to this one and returns this result
+
+	public SimulationResult merge(SimulationResult other) {
+		humanWins += other.humanWins;
+		computerWins += other.computerWins;
+		ties += other.ties;
+		unfinished += other.unfinished;
+		totalTurns += other.totalTurns;
+		for (int turns = 0; turns <= turnLimit; turns++) {
+			turnHistogram[turns] += other.turnHistogram[turns];
+		}
+		return this;
+	}
+
+	// Returns the total number of games recorded
+
+	public int getGames() {
+		return humanWins + computerWins + ties + unfinished;
+	}
+
+	// Returns the number of games won by the human seat
+
+	public int getHumanWins() {
+		return humanWins;
+	}
+
+	// Returns the number of games won by the computer seat
+
+	public int getComputerWins() {
+		return computerWins;
+	}
+
+	// Returns the number of games that ended in a tie
+
+	public int getTies() {
+		return ties;
+	}
+
+	// Returns the number of games stopped by the turn limit or by both
+	// Players running out of Cards
+
+	public int getUnfinished() {
+		return unfinished;
+	}
+
+	// Returns the number of games that lasted the given number of turns
+
+	public long getGamesLasting(int turns) {
+		return turnHistogram[turns];
+	}
+
+	// Returns the average number of turns per game
+
+	public double getAverageTurns() {
+		return getGames() == 0 ? 0 : (double) totalTurns / getGames();
+	}
+
+	// Returns the wall-clock time taken to play the games, in nanoseconds
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	// Sets the wall-clock time taken to play the games, in nanoseconds
+
+	public void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	// Returns the number of games played per second of wall-clock time
+
+	public double getGamesPerSecond() {
+		return elapsedNanos == 0 ? 0 : getGames() * 1e9 / elapsedNanos;
+	}
+
+	// Returns a report of the win rates, speed and turn-length histogram
+
+	public String toString() {
+		StringBuilder report = new StringBuilder();
+		int games = Math.max(1, getGames());
+		report.append(String.format("Games: %d (%.1f games/sec)%n", getGames(), getGamesPerSecond()));
+		report.append(String.format("Human seat wins:    %6d (%5.1f%%)%n", humanWins, 100.0 * humanWins / games));
+		report.append(String.format("Computer seat wins: %6d (%5.1f%%)%n", computerWins, 100.0 * computerWins / games));
+		report.append(String.format("Ties:               %6d (%5.1f%%)%n", ties, 100.0 * ties / games));
+		report.append(String.format("Unfinished:         %6d (%5.1f%%)%n", unfinished, 100.0 * unfinished / games));
+		report.append(String.format("Average turns: %.2f%n", getAverageTurns()));
+		report.append("Turns  Games\n");
+		for (int turns = 0; turns <= turnLimit; turns++) {
+			if (turnHistogram[turns] > 0) {
+				report.append(String.format("%5d  %d%n", turns, turnHistogram[turns]));
+			}
+		}
+		return report.toString();
+	}
+}
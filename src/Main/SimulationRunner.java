@@ -0,0 +1,250 @@
+package Main;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * This class plays complete games of Card Battle between two AIs without any input, output or pauses. Both
+ * seats are played by CardBattleAI at the chosen difficulties, and batches of independent games are spread
+ * across a ForkJoinPool. Game number i of a batch is always played from the same seed, and the AIs that search
+ * stop after a fixed amount of work rather than at their time limits, so a batch gives the same SimulationResult
+ * no matter how many threads play it or how busy the machine is. Every move of each seat is timed through a
+ * MeteredStrategy, so a run also reports the latency percentiles, positions evaluated and allocation per move of
+ * both AIs.
+ */
+
+public class SimulationRunner {
+
+	public static final int DEFAULT_TURN_LIMIT = 200;
+
+	// Number of games a task plays itself instead of splitting further
+
+	private static final int GAMES_PER_TASK = 16;
+
+	private final String humanDifficulty;
+	private final String computerDifficulty;
+	private final int turnLimit;
+	private final ForkJoinPool pool;
+	private final StrategyMetrics humanMetrics;
+	private final StrategyMetrics computerMetrics;
+	private volatile GameJournal journal;
+	private volatile boolean fixedBudget = true;
+
+	// Creates a SimulationRunner that plays the human seat and the computer
+	// seat at the given difficulties on every available core
+
+	public SimulationRunner(String humanDifficulty, String computerDifficulty) {
+		this(humanDifficulty, computerDifficulty, DEFAULT_TURN_LIMIT, Runtime.getRuntime().availableProcessors());
+	}
+
+	// Creates a SimulationRunner that stops games after turnLimit turns and
+	// plays them on the given number of threads
+
+	public SimulationRunner(String humanDifficulty, String computerDifficulty, int turnLimit, int threads) {
+		if (turnLimit < 1 || threads < 1) {
+			throw new IllegalArgumentException("Invalid: Turn limit and thread count must be positive");
+		}
+		this.humanDifficulty = humanDifficulty;
+		this.computerDifficulty = computerDifficulty;
+		this.turnLimit = turnLimit;
+		this.pool = new ForkJoinPool(threads);
+		this.humanMetrics = new StrategyMetrics(humanDifficulty + " (human seat)");
+		this.computerMetrics = new StrategyMetrics(computerDifficulty + " (computer seat)");
+	}
+
+	// Plays the given number of games and returns their combined result. The
+	// seed of each game is derived from the given seed and the game's number
+
+	public SimulationResult run(int games, long seed) {
+		long start = System.nanoTime();
+		SimulationResult result = pool.invoke(new GameTask(seed, 0, games));
+		result.setElapsedNanos(System.nanoTime() - start);
+		return result;
+	}
+
+	// Sets the journal that every game played from now on is recorded in, or
+	// stops recording games if null
+
+	public void setJournal(GameJournal journal) {
+		this.journal = journal;
+	}
+
+	// Sets whether the AIs of games played from now on stop each search after
+	// a fixed amount of work (the default), or at their time limits as in the
+	// game. Time limits make the results depend on the speed and load of the
+	// machine, and so on the number of threads
+
+	public void setFixedBudget(boolean fixedBudget) {
+		this.fixedBudget = fixedBudget;
+	}
+
+	// Returns the latency, positions and allocation of every move the human
+	// seat's AI has made in the games played so far
+
+	public StrategyMetrics getHumanMetrics() {
+		return humanMetrics;
+	}
+
+	// Returns the latency, positions and allocation of every move the
+	// computer seat's AI has made in the games played so far
+
+	public StrategyMetrics getComputerMetrics() {
+		return computerMetrics;
+	}
+
+	// Stops the threads of this SimulationRunner
+
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	// Plays a single game from the given seed and records it in the given
+	// result
+
+	public void playGame(long seed, SimulationResult result) {
+		Board board = new Board(new Player("Human"), new Player("Computer"), seed);
+		board.setDifficulty(computerDifficulty);
+		CardBattleAI ai = new CardBattleAI(board);
+		AIStrategy humanStrategy = new MeteredStrategy(createStrategy(humanDifficulty), humanMetrics);
+		AIStrategy computerStrategy = new MeteredStrategy(createStrategy(computerDifficulty), computerMetrics);
+		board.resetBoard();
+		ai.generateZoneBonuses();
+		ai.initialDraw();
+		GameJournal journal = this.journal;
+		GameRecorder recorder = journal == null ? null : new GameRecorder();
+
+		// Roll the dice like CardBattleIO.rollDice: the winner of the roll
+		// moves second each turn, and ties go to the human seat
+		RandomGenerator dice = board.getRandom().getDiceStream();
+		boolean humanMovesSecond = dice.nextInt(20) + 1 >= dice.nextInt(20) + 1;
+		Player first = humanMovesSecond ? board.getComputerPlayer() : board.getHumanPlayer();
+		Player second = humanMovesSecond ? board.getHumanPlayer() : board.getComputerPlayer();
+		AIStrategy firstStrategy = humanMovesSecond ? computerStrategy : humanStrategy;
+		AIStrategy secondStrategy = humanMovesSecond ? humanStrategy : computerStrategy;
+		board.setFirstPlayer(first);
+		if (recorder != null) {
+			recorder.startGame(board);
+		}
+
+		boolean stalled = false;
+		while (ai.getWinner() == null && board.getTurn() <= turnLimit && !stalled) {
+			ai.applyImpairedBonus();
+			ai.applyChargedBonus();
+			long keyBefore = board.getPositionKey();
+			boolean firstPlayed = ai.playTurn(first, firstStrategy);
+			boolean secondPlayed = ai.playTurn(second, secondStrategy);
+			ai.endTurn();
+
+			// Once neither Player can place a Card and the turn changed
+			// nothing, every later turn would be the same
+			stalled = !firstPlayed && !secondPlayed && board.getPositionKey() == keyBefore;
+		}
+
+		humanStrategy.shutdown();
+		computerStrategy.shutdown();
+		if (recorder != null) {
+			try {
+				journal.append(recorder.finishGame());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		Player winner = ai.getWinner();
+		int winnerIndex;
+		if (winner == null) {
+			winnerIndex = -2;
+		} else if (winner == board.getHumanPlayer()) {
+			winnerIndex = Board.HUMAN_INDEX;
+		} else if (winner == board.getComputerPlayer()) {
+			winnerIndex = Board.COMPUTER_INDEX;
+		} else {
+			winnerIndex = -1;
+		}
+		result.addGame(winnerIndex, board.getTurn() - 1);
+	}
+
+	// Private helper creates the strategy for a seat played at the given
+	// difficulty. Games are already spread over the threads, so every AI
+	// searches on one each, and difficulties that are not registered are
+	// played by the Medium AI as in CardBattleAI
+
+	private AIStrategy createStrategy(String difficulty) {
+		AIStrategy strategy = AIStrategyRegistry.create(AIStrategyRegistry.isRegistered(difficulty) ? difficulty : "Medium");
+		strategy.setThreads(1);
+		if (fixedBudget) {
+			strategy.useFixedBudget();
+		}
+		return strategy;
+	}
+
+	// Private helper returns the seed of the game with the given number
+
+	private static long gameSeed(long seed, int game) {
+		return seed + game * 0x9E3779B97F4A7C15L;
+	}
+
+	// Plays the games numbered from (inclusive) to to (exclusive), splitting
+	// them between threads
+
+	private class GameTask extends RecursiveTask<SimulationResult> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long seed;
+		private final int from, to;
+
+		private GameTask(long seed, int from, int to) {
+			this.seed = seed;
+			this.from = from;
+			this.to = to;
+		}
+
+		protected SimulationResult compute() {
+			if (to - from <= GAMES_PER_TASK) {
+				SimulationResult result = new SimulationResult(turnLimit);
+				for (int game = from; game < to; game++) {
+					playGame(gameSeed(seed, game), result);
+				}
+				return result;
+			}
+			int middle = (from + to) >>> 1;
+			GameTask left = new GameTask(seed, from, middle);
+			GameTask right = new GameTask(seed, middle, to);
+			left.fork();
+			SimulationResult result = right.compute();
+			return result.merge(left.join());
+		}
+	}
+
+	// Runs a batch of games from the command line, optionally appending them
+	// to a journal file:
+	// SimulationRunner games humanDifficulty computerDifficulty [seed] [threads] [journal]
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3) {
+			System.out.println(
+					"Usage: SimulationRunner games humanDifficulty computerDifficulty [seed] [threads] [journal]");
+			return;
+		}
+		int games = Integer.parseInt(args[0]);
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : new SplittableRandom().nextLong();
+		int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+		SimulationRunner runner = new SimulationRunner(args[1], args[2], DEFAULT_TURN_LIMIT, threads);
+		GameJournal journal = args.length > 5 ? GameJournal.open(Paths.get(args[5])) : null;
+		runner.setJournal(journal);
+		System.out.println(args[1] + " (human seat) vs. " + args[2] + " (computer seat), seed " + seed + ", "
+				+ threads + " threads");
+		System.out.print(runner.run(games, seed));
+		System.out.println(runner.getHumanMetrics());
+		System.out.println(runner.getComputerMetrics());
+		runner.shutdown();
+		if (journal != null) {
+			journal.close();
+		}
+	}
+}
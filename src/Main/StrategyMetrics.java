@@ -0,0 +1,185 @@
+package Main;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/*
+ * This class collects statistics about the moves chosen by one or more MeteredStrategy wrappers: how long each
+ * decision took, how many positions it evaluated and how many bytes the deciding thread allocated. Latencies go
+ * into a fixed log-linear histogram (16 buckets for each power of two, so percentiles are within about 6% of
+ * the true value) and nothing is allocated per decision, so one StrategyMetrics can be shared by many threads
+ * and millions of moves.
+ */
+
+public class StrategyMetrics {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	// The JVM's per-thread allocation counter, or null if it has none
+
+	private static final com.sun.management.ThreadMXBean ALLOCATION = allocationCounter();
+
+	private final String name;
+	private final long[] histogram = new long[BUCKETS];
+	private long decisions;
+	private long totalNanos;
+	private long maxNanos;
+	private long positions;
+	private long allocatedBytes;
+
+	// Creates empty StrategyMetrics with the given name for reports
+
+	public StrategyMetrics(String name) {
+		this.name = name;
+	}
+
+	// Returns the name of these StrategyMetrics
+
+	public String getName() {
+		return name;
+	}
+
+	// Records one decision that took the given time, evaluated the given
+	// number of positions and allocated the given number of bytes (-1 if
+	// unknown)
+
+	public synchronized void record(long nanos, long positionsEvaluated, long bytes) {
+		nanos = Math.max(nanos, 0);
+		histogram[bucket(nanos)]++;
+		decisions++;
+		totalNanos += nanos;
+		maxNanos = Math.max(maxNanos, nanos);
+		positions += positionsEvaluated;
+		if (bytes > 0) {
+			allocatedBytes += bytes;
+		}
+	}
+
+	// Returns the number of decisions recorded
+
+	public synchronized long getDecisions() {
+		return decisions;
+	}
+
+	// Returns the latency in nanoseconds that the given fraction (between 0
+	// and 1) of decisions took at most, such as 0.99 for the 99th percentile
+
+	public synchronized long getLatencyPercentile(double fraction) {
+		if (fraction < 0 || fraction > 1) {
+			throw new IllegalArgumentException("Invalid: Percentile must be between 0 and 1");
+		}
+		if (decisions == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(fraction * decisions));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += histogram[i];
+			if (seen >= rank) {
+				return Math.min(bucketTop(i), maxNanos);
+			}
+		}
+		return maxNanos;
+	}
+
+	// Returns the mean latency in nanoseconds
+
+	public synchronized long getMeanLatency() {
+		return decisions == 0 ? 0 : totalNanos / decisions;
+	}
+
+	// Returns the longest latency in nanoseconds
+
+	public synchronized long getMaxLatency() {
+		return maxNanos;
+	}
+
+	// Returns the average number of positions evaluated per decision
+
+	public synchronized double getPositionsPerDecision() {
+		return decisions == 0 ? 0 : (double) positions / decisions;
+	}
+
+	// Returns the average number of bytes allocated per decision by the
+	// thread that made it, or -1 if the JVM cannot measure allocation
+
+	public synchronized long getAllocatedBytesPerDecision() {
+		if (ALLOCATION == null) {
+			return -1;
+		}
+		return decisions == 0 ? 0 : allocatedBytes / decisions;
+	}
+
+	// Discards everything recorded so far
+
+	public synchronized void reset() {
+		Arrays.fill(histogram, 0);
+		decisions = 0;
+		totalNanos = 0;
+		maxNanos = 0;
+		positions = 0;
+		allocatedBytes = 0;
+	}
+
+	// Returns the number of bytes the current thread has allocated so far, or
+	// -1 if the JVM cannot measure allocation
+
+	static long allocatedBytes() {
+		return ALLOCATION == null ? -1 : ALLOCATION.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	// Returns a one-line report of these StrategyMetrics, with latencies in
+	// milliseconds
+
+	public synchronized String toString() {
+		long bytes = getAllocatedBytesPerDecision();
+		return String.format("%s: %d moves, latency p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms, "
+				+ "%.0f positions/move, %s/move", name, decisions, getLatencyPercentile(0.5) / 1e6,
+				getLatencyPercentile(0.9) / 1e6, getLatencyPercentile(0.99) / 1e6, maxNanos / 1e6,
+				getPositionsPerDecision(), bytes < 0 ? "unknown bytes" : bytes + " bytes");
+	}
+
+	// Private helpers map a latency to its histogram bucket, and a bucket to
+	// the largest latency it holds
+
+	private static int bucket(long nanos) {
+		if (nanos < SUB_BUCKETS) {
+			return (int) nanos;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long bucketTop(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long subBucket = bucket % SUB_BUCKETS;
+		long width = 1L << (exponent - SUB_BUCKET_BITS);
+		return (1L << exponent) + (subBucket + 1) * width - 1;
+	}
+
+	// Private helper returns the JVM's per-thread allocation counter, turning
+	// it on if needed, or null if it has none
+
+	private static com.sun.management.ThreadMXBean allocationCounter() {
+		try {
+			ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if (bean instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) bean;
+				if (counter.isThreadAllocatedMemorySupported()) {
+					counter.setThreadAllocatedMemoryEnabled(true);
+					return counter;
+				}
+			}
+		} catch (LinkageError | UnsupportedOperationException | SecurityException e) {
+
+			// Allocation is reported as unknown
+		}
+		return null;
+	}
+}
@@ -0,0 +1,254 @@
+package Main;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * This class is a fixed-size table of search results keyed by 64-bit position keys, shared by any number of
+ * search threads without locks. Entries live in a single long[]: each takes two longs, the entry's data (score,
+ * depth, bound, best move and the generation of the search that stored it) and its key XORed with that data.
+ * A reader only accepts an entry if XORing the two longs back gives its own key, so an entry that another thread
+ * was half-way through writing, or one that belongs to a different position, is simply a miss. No objects are
+ * created per entry or per probe.
+ *
+ * Keys map to buckets of BUCKET_SIZE entries. A store replaces the entry for the same position unless that entry
+ * is deeper and from the current search, and otherwise takes an empty entry or the shallowest one in the bucket,
+ * entries left over from earlier searches going first. Hits, misses and collisions (stores that evict a different
+ * position) are counted so the table can be sized.
+ *
+ * Entries are aged by a generation number that only the table's owner advances, with newSearch, once per move
+ * of the game. Searches sharing a table on other threads never advance it, so one search starting does not make
+ * the entries of another search that is still running look stale. The generation takes 6 bits, so an entry only
+ * looks current again after 64 moves.
+ */
+
+public class TranspositionTable {
+
+	public static final int DEFAULT_ENTRIES = 1 << 18;
+
+	// Kinds of bound a stored score is. Every bound is non-zero, so a stored
+	// entry's data is never 0
+
+	public static final int UPPER_BOUND = 1;
+	public static final int LOWER_BOUND = 2;
+	public static final int EXACT = 3;
+
+	// Returned by probe when the table holds nothing for a position
+
+	public static final long MISS = 0;
+
+	private static final int BUCKET_SIZE = 4;
+
+	// Layout of an entry's data: the score in bits 0 to 31, the best move
+	// plus one in bits 32 to 47, the depth in bits 48 to 55, the bound in
+	// bits 56 and 57 and the generation in bits 58 to 63
+
+	private static final int MOVE_SHIFT = 32;
+	private static final int DEPTH_SHIFT = 48;
+	private static final int BOUND_SHIFT = 56;
+	private static final int GENERATION_SHIFT = 58;
+	private static final int MAX_MOVE = (1 << 16) - 2;
+	private static final int MAX_DEPTH = 255;
+	private static final int GENERATION_MASK = 63;
+
+	private final long[] entries;
+	private final int bucketMask;
+	private volatile int generation;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder collisions = new LongAdder();
+
+	// Creates a TranspositionTable with DEFAULT_ENTRIES entries
+
+	public TranspositionTable() {
+		this(DEFAULT_ENTRIES);
+	}
+
+	// Creates a TranspositionTable with room for the given number of entries,
+	// rounded down to a power of two (16 bytes each)
+
+	public TranspositionTable(int capacity) {
+		if (capacity < BUCKET_SIZE || capacity > 1 << 29) {
+			throw new IllegalArgumentException("Invalid: Capacity must be between " + BUCKET_SIZE + " and " + (1 << 29));
+		}
+		int buckets = Integer.highestOneBit(capacity) / BUCKET_SIZE;
+		this.entries = new long[buckets * BUCKET_SIZE * 2];
+		this.bucketMask = buckets - 1;
+	}
+
+	// Returns the number of entries the table holds
+
+	public int getCapacity() {
+		return entries.length / 2;
+	}
+
+	// Returns the data stored for the given position key, or MISS
+
+	public long probe(long key) {
+		int slot = bucket(key);
+		for (int i = 0; i < BUCKET_SIZE; i++, slot += 2) {
+			long data = entries[slot + 1];
+			if (data != MISS && (entries[slot] ^ data) == key) {
+				hits.increment();
+				return data;
+			}
+		}
+		misses.increment();
+		return MISS;
+	}
+
+	// Stores a search result for the given position key: its score, the
+	// depth it was searched to, the kind of bound the score is, and the best
+	// move found (or -1 if none)
+
+	public void store(long key, int score, int depth, int bound, int move) {
+		if (bound < UPPER_BOUND || bound > EXACT) {
+			throw new IllegalArgumentException("Invalid: Unknown bound " + bound);
+		}
+		depth = Math.max(0, Math.min(depth, MAX_DEPTH));
+		int current = generation;
+		long data = (score & 0xFFFFFFFFL) | (long) (move < 0 || move > MAX_MOVE ? 0 : move + 1) << MOVE_SHIFT
+				| (long) depth << DEPTH_SHIFT | (long) bound << BOUND_SHIFT | (long) current << GENERATION_SHIFT;
+
+		// Pick the entry to replace: the same position, else an empty entry,
+		// else the shallowest, with entries from earlier searches first
+		int first = bucket(key);
+		int victim = -1;
+		int victimWorth = Integer.MAX_VALUE;
+		for (int i = 0, slot = first; i < BUCKET_SIZE; i++, slot += 2) {
+			long old = entries[slot + 1];
+			if (old == MISS) {
+				if (victimWorth > -1) {
+					victim = slot;
+					victimWorth = -1;
+				}
+				continue;
+			}
+			if ((entries[slot] ^ old) == key) {
+				if (getDepth(old) > depth && getGeneration(old) == current) {
+					return;
+				}
+				victim = slot;
+				victimWorth = Integer.MIN_VALUE;
+				break;
+			}
+			int worth = getDepth(old) + (getGeneration(old) == current ? MAX_DEPTH + 1 : 0);
+			if (worth < victimWorth) {
+				victim = slot;
+				victimWorth = worth;
+			}
+		}
+		if (victimWorth >= 0) {
+			collisions.increment();
+		}
+
+		// A reader that sees one of these writes but not the other rejects
+		// the entry
+		entries[victim] = key ^ data;
+		entries[victim + 1] = data;
+	}
+
+	// Starts a new generation: entries stored before now are replaced first.
+	// Only the table's owner calls this, once per move of the game, and never
+	// while another thread may be calling it
+
+	public void newSearch() {
+		generation = (generation + 1) & GENERATION_MASK;
+	}
+
+	// Returns the current generation, from 0 to 63
+
+	public int getGeneration() {
+		return generation;
+	}
+
+	// Empties the table and resets its counters
+
+	public void clear() {
+		Arrays.fill(entries, 0);
+		resetStatistics();
+	}
+
+	// Resets the hit, miss and collision counters
+
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+		collisions.reset();
+	}
+
+	// Returns the number of probes that found their position
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	// Returns the number of probes that did not find their position
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	// Returns the number of stores that evicted a different position
+
+	public long getCollisions() {
+		return collisions.sum();
+	}
+
+	// Returns the fraction of probes that found their position
+
+	public double getHitRate() {
+		long found = getHits();
+		long total = found + getMisses();
+		return total == 0 ? 0 : (double) found / total;
+	}
+
+	// Returns the fraction of entries in use, estimated from up to the first
+	// 4096 entries
+
+	public double getOccupancy() {
+		int sampled = Math.min(getCapacity(), 4096);
+		int used = 0;
+		for (int i = 0; i < sampled; i++) {
+			if (entries[i * 2 + 1] != MISS) {
+				used++;
+			}
+		}
+		return (double) used / sampled;
+	}
+
+	// Returns a one-line report of the table's size and counters
+
+	public String toString() {
+		return String.format("%d entries (%.0f%% used): %d hits, %d misses (%.1f%% hit rate), %d collisions",
+				getCapacity(), getOccupancy() * 100, getHits(), getMisses(), getHitRate() * 100, getCollisions());
+	}
+
+	// Return the parts of an entry's data returned by probe
+
+	public static int getScore(long data) {
+		return (int) data;
+	}
+
+	public static int getMove(long data) {
+		return (int) (data >>> MOVE_SHIFT & 0xFFFF) - 1;
+	}
+
+	public static int getDepth(long data) {
+		return (int) (data >>> DEPTH_SHIFT & 0xFF);
+	}
+
+	public static int getBound(long data) {
+		return (int) (data >>> BOUND_SHIFT & 3);
+	}
+
+	private static int getGeneration(long data) {
+		return (int) (data >>> GENERATION_SHIFT);
+	}
+
+	// Private helper returns the index in entries of the first entry of the
+	// given key's bucket
+
+	private int bucket(long key) {
+		return (int) ((key ^ key >>> 32) & bucketMask) * BUCKET_SIZE * 2;
+	}
+}
@@ -0,0 +1,162 @@
+package Main;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * This class is a growable buffer that the binary formats of Card Battle (GameSnapshot and the game journal) are
+ * encoded into, along with the static methods that read them back. Unsigned numbers are written as little-endian
+ * base-128 varints, signed numbers are zigzag-encoded first so that small negative numbers stay short, and
+ * Strings are written as their UTF-8 length followed by their bytes.
+ */
+
+final class VarintBuffer {
+
+	private static final int INITIAL_CAPACITY = 2048;
+
+	private ByteBuffer buffer;
+
+	// Creates an empty VarintBuffer
+
+	public VarintBuffer() {
+		this(INITIAL_CAPACITY);
+	}
+
+	// Creates an empty VarintBuffer with room for the given number of bytes
+
+	public VarintBuffer(int initialCapacity) {
+		buffer = ByteBuffer.allocate(Math.max(16, initialCapacity));
+	}
+
+	// Returns the number of bytes written so far
+
+	public int size() {
+		return buffer.position();
+	}
+
+	// Removes everything written so far
+
+	public void clear() {
+		buffer.clear();
+	}
+
+	public void putByte(int value) {
+		ensureCapacity(1);
+		buffer.put((byte) value);
+	}
+
+	public void putInt(int value) {
+		ensureCapacity(4);
+		buffer.putInt(value);
+	}
+
+	public void putLong(long value) {
+		ensureCapacity(8);
+		buffer.putLong(value);
+	}
+
+	public void putVarint(int value) {
+		ensureCapacity(5);
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	public void putSigned(int value) {
+		putVarint((value << 1) ^ (value >> 31));
+	}
+
+	public void putString(String s) {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		putVarint(bytes.length);
+		ensureCapacity(bytes.length);
+		buffer.put(bytes);
+	}
+
+	// Writes the remaining bytes of the given buffer, preceded by their
+	// number
+
+	public void putBytes(ByteBuffer bytes) {
+		putVarint(bytes.remaining());
+		ensureCapacity(bytes.remaining());
+		buffer.put(bytes);
+	}
+
+	// Returns a read-only view of the bytes written so far, ready to be read
+	// from position 0. The view is only valid until the next write
+
+	public ByteBuffer view() {
+		ByteBuffer view = buffer.duplicate();
+		view.flip();
+		return view.asReadOnlyBuffer();
+	}
+
+	// Returns the bytes written so far, ready to be read from position 0. No
+	// more may be written afterwards
+
+	public ByteBuffer finish() {
+		buffer.flip();
+		return buffer;
+	}
+
+	// Reads a varint written by putVarint
+
+	public static int getVarint(ByteBuffer in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = in.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IOException("Invalid: Malformed varint");
+	}
+
+	// Reads a signed number written by putSigned
+
+	public static int getSigned(ByteBuffer in) throws IOException {
+		int value = getVarint(in);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	// Reads a String written by putString
+
+	public static String getString(ByteBuffer in) throws IOException {
+		byte[] bytes = new byte[getLength(in)];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	// Reads bytes written by putBytes, returning them as a slice of the given
+	// buffer and moving past them
+
+	public static ByteBuffer getBytes(ByteBuffer in) throws IOException {
+		int length = getLength(in);
+		ByteBuffer bytes = in.slice();
+		bytes.limit(length);
+		in.position(in.position() + length);
+		return bytes;
+	}
+
+	// Private helper reads the length of a String or run of bytes
+
+	private static int getLength(ByteBuffer in) throws IOException {
+		int length = getVarint(in);
+		if (length < 0 || length > in.remaining()) {
+			throw new IOException("Invalid: Length runs past the end of the data");
+		}
+		return length;
+	}
+
+	private void ensureCapacity(int bytes) {
+		if (buffer.remaining() < bytes) {
+			ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+			buffer.flip();
+			larger.put(buffer);
+			buffer = larger;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package Main;
+/*
+ * This class provides the 64-bit keys that make up a Board's Zobrist position key. The key of a position is the
+ * XOR of the keys of every Card on the Board (including its current stats), every Zone bonus, every Card in each
+ * Player's hand, and each Player's HP, so a Board can update its key incrementally by XORing out the old key of
+ * whatever changes and XORing in the new one.
+ */
+
+public final class Zobrist {
+
+	private static final long CARD_SEED = 0x2545F4914F6CDD1DL;
+	private static final long STATS_SEED = 0x9E3779B97F4A7C15L;
+	private static final long HAND_SEED = 0x632BE59BD9B4E019L;
+	private static final long PLAYER_SEED = 0x85157AF5A2E1B3C7L;
+	private static final long HOT_ZONE_SEED = 0x1B873593CC9E2D51L;
+	private static final long COLD_ZONE_SEED = 0xD6E8FEB86659FD93L;
+	private static final long SIDE_SEED = 0x4CF5AD432745937FL;
+
+	// Prevents Zobrist from being instantiated
+
+	private Zobrist() {
+	}
+
+	// Returns the key of the Card with the given handle in the given Node,
+	// including its current HP, AP and contamination
+
+	public static long cardKey(int node, CardStore store, int handle) {
+		long stats = store.getCurrentHP(handle);
+		for (int side = 0; side < CardStore.SIDES; side++) {
+			stats = stats * 31 + store.getCurrentAP(handle, side);
+		}
+		stats = stats * 31 + store.getContaminatedTurnsLeft(handle);
+
+		// The stats are mixed together with the Card and its Node, so that two
+		// Cards with the same stats (or swapped stats) do not cancel out
+		return mix(mix(CARD_SEED + ((long) node << 32) + handle) + STATS_SEED + stats);
+	}
+
+	// Returns the key of the Card with the given handle being in the hand of
+	// the Player with the given index
+
+	public static long handKey(int playerIndex, int handle) {
+		return mix(HAND_SEED + ((long) playerIndex << 32) + handle);
+	}
+
+	// Returns the key of the Player with the given index having the given HP
+
+	public static long playerKey(int playerIndex, int hP) {
+		return mix(PLAYER_SEED + ((long) playerIndex << 32) + hP);
+	}
+
+	// Returns the key of the Player with the given index being the one to
+	// move, as the first or last move of the turn. Not part of a Board's
+	// position key; searches add it to tell apart positions where different
+	// Players are to move
+
+	public static long sideKey(int playerIndex, boolean lastInTurn) {
+		return mix(SIDE_SEED + playerIndex * 2 + (lastInTurn ? 1 : 0));
+	}
+
+	// Returns the key of a Hot Zone bonus in the given Node
+
+	public static long hotZoneKey(int node) {
+		return mix(HOT_ZONE_SEED + node);
+	}
+
+	// Returns the key of a Cold Zone bonus in the given Node
+
+	public static long coldZoneKey(int node) {
+		return mix(COLD_ZONE_SEED + node);
+	}
+
+	// Scrambles the bits of the given value (the SplitMix64 finalizer) so that
+	// nearby inputs give unrelated keys
+
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
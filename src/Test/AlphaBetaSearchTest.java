@@ -0,0 +1,95 @@
+package Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import Main.*;
+
+/*
+ * Tests that AlphaBetaSearch, which deals the opponent a random hand for each search, puts the real hand back:
+ * after every search the position key, both hands and the owner of every Card are what they were. Also tests
+ * that a search with a node limit makes the same move whatever its time limit.
+ */
+
+public class AlphaBetaSearchTest {
+
+	private static final int GAMES = 5;
+	private static final long TIME_LIMIT_MILLIS = 5;
+	private static final long NODE_LIMIT = 20000;
+
+	public static void main(String[] args) {
+		boolean passed = TestGames.report("search restores hidden hand", testRestoresHand());
+		passed &= TestGames.report("node limit ignores the clock", testNodeLimit());
+		if (!passed) {
+			System.exit(1);
+		}
+	}
+
+	// Tests that searching for either Player at the start of every turn of
+	// seeded games leaves the Board as it was
+	public static boolean testRestoresHand() {
+		for (long seed = 1; seed <= GAMES; seed++) {
+			Board board = TestGames.newGame(seed);
+			CardBattleAI ai = new CardBattleAI(board);
+			AlphaBetaSearch search = new AlphaBetaSearch(board);
+			search.setTimeLimit(TIME_LIMIT_MILLIS);
+			while (!TestGames.isOver(ai, board)) {
+				for (Player player : new Player[] { board.getHumanPlayer(), board.getComputerPlayer() }) {
+					List<Integer> before = state(board);
+					long key = board.getPositionKey();
+					search.findMove(player);
+					if (!state(board).equals(before) || board.getPositionKey() != key
+							|| board.computePositionKey() != key) {
+						return false;
+					}
+				}
+				TestGames.playTurn(ai, board, "Medium", "Hard");
+			}
+		}
+		return true;
+	}
+
+	// Tests that two searches of the same seeded games with a node limit, one
+	// with a time limit far too short for it, evaluate as many positions and
+	// make the same moves
+	public static boolean testNodeLimit() {
+		for (long seed = 1; seed <= GAMES; seed++) {
+			Board[] boards = { TestGames.newGame(seed), TestGames.newGame(seed) };
+			CardBattleAI[] ais = { new CardBattleAI(boards[0]), new CardBattleAI(boards[1]) };
+			AlphaBetaSearch[] searches = { new AlphaBetaSearch(boards[0]), new AlphaBetaSearch(boards[1]) };
+			searches[0].setTimeLimit(1);
+			for (AlphaBetaSearch search : searches) {
+				search.setNodeLimit(NODE_LIMIT);
+			}
+			while (!TestGames.isOver(ais[0], boards[0])) {
+				Move first = searches[0].findMove(boards[0].getComputerPlayer());
+				Move second = searches[1].findMove(boards[1].getComputerPlayer());
+				if (searches[0].getPositionsEvaluated() != searches[1].getPositionsEvaluated()
+						|| !Objects.equals(first, second)) {
+					return false;
+				}
+				for (int i = 0; i < 2; i++) {
+					TestGames.playTurn(ais[i], boards[i], "Medium", "Hard");
+				}
+			}
+		}
+		return true;
+	}
+
+	// Private helper returns both hands, in order, and the owner of every Card
+	private static List<Integer> state(Board board) {
+		List<Integer> state = new ArrayList<Integer>();
+		for (Player player : new Player[] { board.getHumanPlayer(), board.getComputerPlayer() }) {
+			for (Card card : player.getHand()) {
+				state.add(card.getHandle());
+			}
+			state.add(-1);
+		}
+		CardStore store = board.getCardStore();
+		for (int handle = 0; handle < store.size(); handle++) {
+			state.add(store.getOwnerIndex(handle));
+		}
+		return state;
+	}
+}
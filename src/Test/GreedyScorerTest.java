@@ -0,0 +1,107 @@
+package Test;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+
+import Main.*;
+
+/*
+ * Tests that GreedyScorer picks the same move whether it scores its candidates on one thread or splits them over
+ * several, with the normal and the enriched score, and that it leaves the Board as it was. Also tests that an
+ * interrupted GreedyScorer throws CancellationException and can be used again afterwards.
+ */
+
+public class GreedyScorerTest {
+
+	private static final int GAMES = 10;
+	private static final int THREADS = 4;
+	private static final long INTERRUPT_AFTER_MILLIS = 50;
+	private static final long STOP_WITHIN_MILLIS = 5000;
+
+	public static void main(String[] args) throws Exception {
+		boolean passed = TestGames.report("parallel greedy scoring", testParallel(false));
+		passed &= TestGames.report("parallel enriched scoring", testParallel(true));
+		passed &= TestGames.report("interrupted scoring on 1 thread", testInterrupt(1));
+		passed &= TestGames.report("interrupted scoring on 4 threads", testInterrupt(THREADS));
+		if (!passed) {
+			System.exit(1);
+		}
+	}
+
+	// Tests that a serial and a parallel GreedyScorer find the same medium and
+	// hard moves for both Players at the start of every turn of seeded games
+	public static boolean testParallel(boolean enriched) {
+		boolean passed = true;
+		for (long seed = 1; seed <= GAMES && passed; seed++) {
+			Board board = TestGames.newGame(seed);
+			CardBattleAI ai = new CardBattleAI(board);
+			GreedyScorer serial = new GreedyScorer(board);
+			GreedyScorer parallel = new GreedyScorer(board, THREADS);
+			serial.setEnriched(enriched);
+			parallel.setEnriched(enriched);
+			try {
+				while (passed && !TestGames.isOver(ai, board)) {
+					long key = board.getPositionKey();
+					for (Player player : new Player[] { board.getHumanPlayer(), board.getComputerPlayer() }) {
+						for (boolean hard : new boolean[] { false, true }) {
+							passed &= Objects.equals(serial.findMove(player, hard), parallel.findMove(player, hard));
+						}
+					}
+					passed &= board.getPositionKey() == key && board.computePositionKey() == key;
+					TestGames.playTurn(ai, board, "Medium", "Hard");
+				}
+			} finally {
+				parallel.shutdown();
+			}
+		}
+		return passed;
+	}
+
+	// Tests that a GreedyScorer on the given number of threads throws
+	// CancellationException, with the interrupt status set, when its thread
+	// is interrupted before or during scoring, and that it then picks the
+	// same move as a serial GreedyScorer
+	public static boolean testInterrupt(int threads) throws Exception {
+		Board board = TestGames.newGame(1);
+		Player player = board.getComputerPlayer();
+		GreedyScorer scorer = new GreedyScorer(board, threads);
+		scorer.setEnriched(true);
+		try {
+			long key = board.getPositionKey();
+			boolean passed = false;
+			Thread.currentThread().interrupt();
+			try {
+				scorer.findMove(player, true);
+			} catch (CancellationException e) {
+				passed = Thread.currentThread().isInterrupted();
+			} finally {
+				Thread.interrupted();
+			}
+
+			// Score over and over until the interrupt lands
+			boolean[] result = new boolean[1];
+			Thread scoring = new Thread(() -> {
+				try {
+					while (true) {
+						scorer.findMove(player, true);
+					}
+				} catch (CancellationException e) {
+					result[0] = Thread.currentThread().isInterrupted();
+				}
+			});
+			scoring.setDaemon(true);
+			scoring.start();
+			Thread.sleep(INTERRUPT_AFTER_MILLIS);
+			scoring.interrupt();
+			scoring.join(STOP_WITHIN_MILLIS);
+			passed &= !scoring.isAlive() && result[0];
+
+			GreedyScorer serial = new GreedyScorer(board);
+			serial.setEnriched(true);
+			passed &= Objects.equals(scorer.findMove(player, true), serial.findMove(player, true));
+			return passed && board.getPositionKey() == key && board.computePositionKey() == key;
+		} finally {
+			scorer.shutdown();
+		}
+	}
+}
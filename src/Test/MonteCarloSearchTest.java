@@ -0,0 +1,62 @@
+package Test;
+
+import java.util.concurrent.CancellationException;
+
+import Main.*;
+
+/*
+ * Tests that interrupting a MonteCarloSearch stops it: findMove throws CancellationException with the interrupt
+ * status still set, soon after the interrupt rather than at its time limit, and the same search can then be used
+ * again and leaves the Board as it was.
+ */
+
+public class MonteCarloSearchTest {
+
+	private static final long LONG_TIME_LIMIT_MILLIS = 60000;
+	private static final long INTERRUPT_AFTER_MILLIS = 100;
+	private static final long STOP_WITHIN_MILLIS = 5000;
+
+	public static void main(String[] args) throws Exception {
+		boolean passed = TestGames.report("interrupted search on 1 thread", testInterrupt(1));
+		passed &= TestGames.report("interrupted search on 4 threads", testInterrupt(4));
+		if (!passed) {
+			System.exit(1);
+		}
+	}
+
+	// Tests that a search on the given number of threads with a long time
+	// limit stops when interrupted, and then finds a legal move
+	public static boolean testInterrupt(int threads) throws Exception {
+		Board board = TestGames.newGame(1);
+		Player player = board.getComputerPlayer();
+		MonteCarloSearch search = new MonteCarloSearch(board, threads);
+		try {
+			search.setTimeLimit(LONG_TIME_LIMIT_MILLIS);
+			long key = board.getPositionKey();
+			boolean[] result = new boolean[1];
+			Thread searcher = new Thread(() -> {
+				try {
+					search.findMove(player);
+				} catch (CancellationException e) {
+					result[0] = Thread.currentThread().isInterrupted();
+				}
+			});
+			searcher.start();
+			Thread.sleep(INTERRUPT_AFTER_MILLIS);
+			searcher.interrupt();
+			searcher.join(STOP_WITHIN_MILLIS);
+			if (searcher.isAlive() || !result[0]) {
+				return false;
+			}
+
+			// The workers have stopped, so the next search can reuse them
+			search.setTimeLimit(50);
+			Move move = search.findMove(player);
+			return move != null && board.getPositionKey() == key
+					&& player.getHand().contains(board.getCardStore().getCard(move.getHandle()))
+					&& board.getCardHandle(move.getNode()) < 0;
+		} finally {
+			search.shutdown();
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package Test;
+
+import java.util.SplittableRandom;
+
+import Main.*;
+
+/*
+ * Tests the Zobrist position key of Board: the key kept up to date incrementally must always equal the key
+ * computed from scratch, through real turns and through makeMove/makeEndTurn and their takebacks, and Cards with
+ * equal or swapped stats must not cancel each other out of the key.
+ */
+
+public class PositionKeyTest {
+
+	private static final int GAMES = 30;
+
+	public static void main(String[] args) {
+		boolean passed = TestGames.report("incremental position key", testIncrementalKey());
+		passed &= TestGames.report("position key card stats", testCardStats());
+		if (!passed) {
+			System.exit(1);
+		}
+	}
+
+	// Tests that getPositionKey matches computePositionKey after every move,
+	// end of turn and takeback of seeded games, and that taking back every
+	// move restores the key
+	public static boolean testIncrementalKey() {
+		for (long seed = 1; seed <= GAMES; seed++) {
+			Board board = TestGames.newGame(seed);
+			CardBattleAI ai = new CardBattleAI(board);
+			SplittableRandom random = new SplittableRandom(seed);
+			while (!TestGames.isOver(ai, board)) {
+				long before = board.getPositionKey();
+				int depth = board.getJournalDepth();
+				for (int ply = 0; ply < 6 && !board.isFull(); ply++) {
+					Player player = ply % 2 == 0 ? board.getComputerPlayer() : board.getHumanPlayer();
+					if (player.getHand().isEmpty()) {
+						break;
+					}
+					Card card = player.getHand().get(random.nextInt(player.getHand().size()));
+					int node = board.getEmptyNode(random.nextInt(board.getEmptyCount()));
+					board.makeMove(card, node / 5, node % 5);
+					if (ply % 2 == 1) {
+						board.makeEndTurn();
+					}
+					if (board.computePositionKey() != board.getPositionKey()) {
+						return false;
+					}
+				}
+				board.unmakeTo(depth);
+				if (board.getPositionKey() != before || board.computePositionKey() != before) {
+					return false;
+				}
+				TestGames.playTurn(ai, board, "Medium", "Hard");
+				if (board.computePositionKey() != board.getPositionKey()) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	// Tests that the keys of two Cards do not cancel when they have the same
+	// stats, and change when their stats are swapped
+	public static boolean testCardStats() {
+		Board board = TestGames.newGame(1);
+		CardStore store = board.getCardStore();
+		Card a = store.getCard(0);
+		Card b = store.getCard(1);
+
+		setStats(a, 30, 5);
+		setStats(b, 30, 5);
+		long same = Zobrist.cardKey(3, store, 0) ^ Zobrist.cardKey(4, store, 1);
+		setStats(a, 40, 8);
+		setStats(b, 40, 8);
+		if ((Zobrist.cardKey(3, store, 0) ^ Zobrist.cardKey(4, store, 1)) == same) {
+			return false;
+		}
+
+		setStats(a, 30, 5);
+		setStats(b, 40, 8);
+		long before = Zobrist.cardKey(3, store, 0) ^ Zobrist.cardKey(4, store, 1);
+		setStats(a, 40, 8);
+		setStats(b, 30, 5);
+		return (Zobrist.cardKey(3, store, 0) ^ Zobrist.cardKey(4, store, 1)) != before;
+	}
+
+	// Private helper gives a Card the given HP and the given AP on every side
+	private static void setStats(Card card, int hP, int aP) {
+		card.setMaxHP(hP);
+		card.setCurrentHP(hP);
+		card.setCurrentAP(aP, aP, aP, aP);
+	}
+}
@@ -0,0 +1,78 @@
+package Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import Main.*;
+
+/*
+ * Tests that games recorded by GameRecorder replay to the same positions through GameReplay, both on a new
+ * Board and on a reused one, and that seekToTurn lands on the position each turn started from.
+ */
+
+public class ReplayTest {
+
+	private static final int GAMES = 20;
+
+	public static void main(String[] args) throws Exception {
+		boolean passed = TestGames.report("replay on a new Board", testReplay(false));
+		passed &= TestGames.report("replay on a reused Board", testReplay(true));
+		passed &= TestGames.report("replay seeking", testSeek());
+		if (!passed) {
+			System.exit(1);
+		}
+	}
+
+	// Tests that every recorded game replays to its final position
+	public static boolean testReplay(boolean reuseBoard) throws Exception {
+		Board reused = reuseBoard ? TestGames.newGame(0) : null;
+		for (long seed = 1; seed <= GAMES; seed++) {
+			List<Long> keys = new ArrayList<Long>();
+			ByteBuffer record = recordGame(seed, keys);
+			GameReplay replay = reuseBoard ? new GameReplay(record, reused) : new GameReplay(record);
+			replay.playToEnd();
+			if (!replay.isFinished() || replay.getBoard().getPositionKey() != keys.get(keys.size() - 1)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Tests that seeking to any turn, forwards or backwards, gives the
+	// position that turn started from
+	public static boolean testSeek() throws Exception {
+		for (long seed = 1; seed <= GAMES; seed++) {
+			List<Long> keys = new ArrayList<Long>();
+			GameReplay replay = new GameReplay(recordGame(seed, keys));
+			int turns = keys.size();
+			for (int i = 0; i < turns * 2; i++) {
+				int turn = 1 + (int) ((i * 7L + seed) % turns);
+				replay.seekToTurn(turn);
+				if (replay.getBoard().getTurn() != turn || replay.getBoard().getPositionKey() != keys.get(turn - 1)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	// Private helper records a seeded Hard vs. Medium game with a snapshot
+	// every 3 turns, adds the position key at the start of each turn to keys
+	// and returns a copy of the record
+	private static ByteBuffer recordGame(long seed, List<Long> keys) {
+		Board board = TestGames.newGame(seed);
+		CardBattleAI ai = new CardBattleAI(board);
+		GameRecorder recorder = new GameRecorder(3);
+		recorder.startGame(board);
+		keys.add(board.getPositionKey());
+		while (!TestGames.isOver(ai, board)) {
+			TestGames.playTurn(ai, board, "Medium", "Hard");
+			keys.add(board.getPositionKey());
+		}
+		ByteBuffer view = recorder.finishGame();
+		ByteBuffer copy = ByteBuffer.allocate(view.remaining());
+		copy.put(view).flip();
+		return copy;
+	}
+}
@@ -0,0 +1,126 @@
+package Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import Main.*;
+
+/*
+ * Tests GameSnapshot: a snapshot decodes to the same position and encodes back to the same bytes, a loaded game
+ * plays on exactly like the game that was saved (random streams included), and corrupt snapshots are rejected.
+ */
+
+public class SnapshotTest {
+
+	private static final int GAMES = 20;
+	private static final int SAVE_TURN = 4;
+
+	public static void main(String[] args) throws Exception {
+		boolean passed = TestGames.report("snapshot round trip", testRoundTrip());
+		passed &= TestGames.report("snapshot continuation", testContinuation(false));
+		passed &= TestGames.report("snapshot continuation in place", testContinuation(true));
+		passed &= TestGames.report("snapshot first player check", testFirstPlayerIndex());
+		if (!passed) {
+			System.exit(1);
+		}
+	}
+
+	// Tests that a snapshot taken at the start of every turn decodes to the
+	// same position and encodes back to the same bytes
+	public static boolean testRoundTrip() throws IOException {
+		for (long seed = 1; seed <= GAMES; seed++) {
+			Board board = TestGames.newGame(seed);
+			CardBattleAI ai = new CardBattleAI(board);
+			while (!TestGames.isOver(ai, board)) {
+				ByteBuffer snapshot = GameSnapshot.encode(board);
+				Board loaded = GameSnapshot.decode(snapshot.duplicate(), null);
+				if (loaded.getPositionKey() != board.getPositionKey() || loaded.getTurn() != board.getTurn()
+						|| !handles(loaded.getHumanPlayer()).equals(handles(board.getHumanPlayer()))
+						|| !handles(loaded.getComputerPlayer()).equals(handles(board.getComputerPlayer()))
+						|| !snapshot.equals(GameSnapshot.encode(loaded))) {
+					return false;
+				}
+				TestGames.playTurn(ai, board, "Easy", "Hard");
+			}
+		}
+		return true;
+	}
+
+	// Tests that a game loaded from a snapshot, on a new Board or over
+	// another game, plays on to the same positions as the game that was
+	// saved, with the Easy AI and contamination damage drawing random numbers
+	public static boolean testContinuation(boolean inPlace) throws IOException {
+		for (long seed = 1; seed <= GAMES; seed++) {
+			Board board = TestGames.newGame(seed);
+			CardBattleAI ai = new CardBattleAI(board);
+			for (int turn = 1; turn < SAVE_TURN && !TestGames.isOver(ai, board); turn++) {
+				TestGames.playTurn(ai, board, "Easy", "Hard");
+			}
+			ByteBuffer snapshot = GameSnapshot.encode(board);
+			Board loaded = GameSnapshot.decode(snapshot, inPlace ? TestGames.newGame(seed + GAMES) : null);
+			CardBattleAI loadedAI = new CardBattleAI(loaded);
+			while (!TestGames.isOver(ai, board)) {
+				TestGames.playTurn(ai, board, "Easy", "Hard");
+				TestGames.playTurn(loadedAI, loaded, "Easy", "Hard");
+				if (loaded.getPositionKey() != board.getPositionKey()) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	// Tests that a snapshot whose first Player index is negative is rejected
+	public static boolean testFirstPlayerIndex() throws IOException {
+		ByteBuffer snapshot = GameSnapshot.encode(TestGames.newGame(1));
+
+		// Find the first Player index, which follows the magic number, the
+		// version, the dictionary sizes, the seed, the turn and the difficulty
+		ByteBuffer in = snapshot.duplicate();
+		in.getInt();
+		for (int i = 0; i < 3; i++) {
+			readVarint(in);
+		}
+		in.getLong();
+		readVarint(in);
+		in.position(in.position() + readVarint(in));
+		int start = in.position();
+		readVarint(in);
+
+		// Replace it by -1, written as a five byte varint
+		ByteBuffer corrupt = ByteBuffer.allocate(snapshot.remaining() + 5);
+		corrupt.put(snapshot.duplicate().limit(start));
+		corrupt.put(new byte[] { -1, -1, -1, -1, 0x0F });
+		corrupt.put(in);
+		corrupt.flip();
+		try {
+			GameSnapshot.decode(corrupt, null);
+			return false;
+		} catch (IOException e) {
+			return true;
+		}
+	}
+
+	// Private helper reads a varint as GameSnapshot writes it
+	private static int readVarint(ByteBuffer in) {
+		int value = 0;
+		for (int shift = 0;; shift += 7) {
+			byte b = in.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+	}
+
+	// Private helper returns the handles of the Cards in a Player's hand
+	private static List<Integer> handles(Player player) {
+		List<Integer> handles = new ArrayList<Integer>();
+		for (Card card : player.getHand()) {
+			handles.add(card.getHandle());
+		}
+		return handles;
+	}
+}
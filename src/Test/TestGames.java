@@ -0,0 +1,56 @@
+package Test;
+
+import Main.*;
+
+/*
+ * This class sets up and plays seeded games of Card Battle for the tests, the same way SimulationRunner does.
+ * Tests must be run from the project directory so that the card name files in docs can be read.
+ */
+
+public class TestGames {
+
+	// Prevents TestGames from being instantiated
+	private TestGames() {
+	}
+
+	// Returns a new Board with a game from the given seed ready to play: the
+	// board is reset, Zones are generated, both hands are dealt and the
+	// computer moves first
+	public static Board newGame(long seed) {
+		Board board = new Board(new Player("Human"), new Player("Computer"), seed);
+		CardBattleAI ai = new CardBattleAI(board);
+		board.resetBoard();
+		ai.generateZoneBonuses();
+		ai.initialDraw();
+		board.setFirstPlayer(board.getComputerPlayer());
+		return board;
+	}
+
+	// Plays one whole turn on the Board with the given AI: bonuses, a move
+	// for each Player at the given difficulties and the end of the turn
+	public static void playTurn(CardBattleAI ai, Board board, String humanDifficulty, String computerDifficulty) {
+		ai.applyImpairedBonus();
+		ai.applyChargedBonus();
+		Player first = board.getFirstPlayer();
+		Player second = first == board.getHumanPlayer() ? board.getComputerPlayer() : board.getHumanPlayer();
+		ai.playTurn(first, first == board.getHumanPlayer() ? humanDifficulty : computerDifficulty);
+		ai.playTurn(second, second == board.getHumanPlayer() ? humanDifficulty : computerDifficulty);
+		ai.endTurn();
+	}
+
+	// Returns true if the game on the Board is over or has gone on too long
+	public static boolean isOver(CardBattleAI ai, Board board) {
+		return ai.getWinner() != null || board.getTurn() > 60 || (board.isFull()
+				&& board.getHumanPlayer().getHand().isEmpty() && board.getComputerPlayer().getHand().isEmpty());
+	}
+
+	// Prints the result of a test in the style of Test.main and returns it
+	public static boolean report(String name, boolean passed) {
+		StringBuilder line = new StringBuilder("Testing " + name);
+		while (line.length() < 40) {
+			line.append('.');
+		}
+		System.out.println(line + (passed ? "Passed" : "FAILED"));
+		return passed;
+	}
+}
@@ -0,0 +1,124 @@
+package Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import Main.*;
+
+/*
+ * Tests TranspositionTable: stored entries come back intact, entries from earlier generations are replaced first
+ * (also after the generation has gone round a few times), searches only age a table they own, and threads
+ * storing and probing the same small table at once never read one position's data for another.
+ */
+
+public class TranspositionTableTest {
+
+	private static final int THREADS = 4;
+	private static final int OPERATIONS_PER_THREAD = 3000000;
+	private static final int KEYS = 1 << 14;
+
+	public static void main(String[] args) throws Exception {
+		boolean passed = TestGames.report("table round trip", testRoundTrip());
+		passed &= TestGames.report("table aging", testAging(1));
+		passed &= TestGames.report("table aging after 4 generations", testAging(4));
+		passed &= TestGames.report("shared table is not aged", testSharedTable());
+		passed &= TestGames.report("concurrent table access", testConcurrent());
+		if (!passed) {
+			System.exit(1);
+		}
+	}
+
+	// Tests that every part of a stored entry is read back unchanged
+	public static boolean testRoundTrip() {
+		TranspositionTable table = new TranspositionTable(1024);
+		table.store(42, -12345, 17, TranspositionTable.LOWER_BOUND, 3231);
+		long data = table.probe(42);
+		return data != TranspositionTable.MISS && TranspositionTable.getScore(data) == -12345
+				&& TranspositionTable.getDepth(data) == 17 && TranspositionTable.getBound(data) == TranspositionTable.LOWER_BOUND
+				&& TranspositionTable.getMove(data) == 3231 && table.probe(43) == TranspositionTable.MISS;
+	}
+
+	// Tests that, after the given number of new generations, two shallow
+	// entries both replace deep entries of the old generation rather than
+	// each other. A table of 4 entries is a single bucket
+	public static boolean testAging(int generations) {
+		TranspositionTable table = new TranspositionTable(4);
+		for (long key = 1; key <= 4; key++) {
+			table.store(key, 0, 10, TranspositionTable.EXACT, -1);
+		}
+		for (int i = 0; i < generations; i++) {
+			table.newSearch();
+		}
+		table.store(5, 0, 1, TranspositionTable.EXACT, -1);
+		table.store(6, 0, 1, TranspositionTable.EXACT, -1);
+		return table.probe(5) != TranspositionTable.MISS && table.probe(6) != TranspositionTable.MISS;
+	}
+
+	// Tests that an AlphaBetaSearch ages its own table once per move and
+	// leaves the generation of a table it is given alone
+	public static boolean testSharedTable() {
+		Board board = TestGames.newGame(1);
+		TranspositionTable shared = new TranspositionTable(1 << 12);
+		AlphaBetaSearch sharing = new AlphaBetaSearch(board, shared);
+		AlphaBetaSearch owning = new AlphaBetaSearch(board);
+		sharing.setTimeLimit(5);
+		owning.setTimeLimit(5);
+		int generation = owning.getTranspositionTable().getGeneration();
+		for (int i = 0; i < 3; i++) {
+			sharing.findMove(board.getComputerPlayer());
+			owning.findMove(board.getComputerPlayer());
+		}
+		return shared.getGeneration() == 0 && owning.getTranspositionTable().getGeneration() == generation + 3;
+	}
+
+	// Tests that threads storing and probing a small table at once never
+	// get back an entry whose score belongs to a different key
+	public static boolean testConcurrent() throws InterruptedException {
+		TranspositionTable table = new TranspositionTable(1 << 12);
+		long[] keys = new long[KEYS];
+		SplittableRandom random = new SplittableRandom(1);
+		for (int i = 0; i < KEYS; i++) {
+			keys[i] = random.nextLong();
+		}
+		AtomicLong hits = new AtomicLong();
+		AtomicLong wrong = new AtomicLong();
+		Thread[] threads = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			long seed = t;
+			threads[t] = new Thread(() -> {
+				SplittableRandom r = new SplittableRandom(seed);
+				long found = 0;
+				long bad = 0;
+				for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+					long key = keys[r.nextInt(KEYS)];
+					if (r.nextBoolean()) {
+
+						// Depth, bound and move vary, the score is fixed by the
+						// key
+						table.store(key, scoreOf(key), r.nextInt(64), 1 + r.nextInt(3), r.nextInt(4000));
+					} else {
+						long data = table.probe(key);
+						if (data != TranspositionTable.MISS) {
+							found++;
+							if (TranspositionTable.getScore(data) != scoreOf(key)) {
+								bad++;
+							}
+						}
+					}
+				}
+				hits.addAndGet(found);
+				wrong.addAndGet(bad);
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		return hits.get() > 0 && wrong.get() == 0;
+	}
+
+	// Private helper returns the score stored with the given key
+	private static int scoreOf(long key) {
+		return (int) (key ^ key >>> 32);
+	}
+}
@@ -0,0 +1,80 @@
+package Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import Main.*;
+
+/*
+ * Tests that Board.makeMove and makeEndTurn are taken back exactly by unmakeMove, unmakeEndTurn and unmakeTo.
+ * A game with random excursions of made and taken back moves at every turn must stay identical, snapshot byte for
+ * snapshot byte, to the same game played without them: every Card's stats, both hands, the Deck, the discard
+ * pile, the Cards on the Board, the order of the empty Nodes and the position key.
+ */
+
+public class UndoTest {
+
+	private static final int GAMES = 30;
+	private static final int EXCURSIONS = 8;
+	private static final int MAX_PLIES = 10;
+
+	public static void main(String[] args) {
+		boolean passed = TestGames.report("takebacks restore the board", testTakebacks());
+		if (!passed) {
+			System.exit(1);
+		}
+	}
+
+	// Tests that seeded games with excursions at the start of every turn play
+	// out exactly like the same games without them
+	public static boolean testTakebacks() {
+		int[] rolls = new int[26];
+		for (long seed = 1; seed <= GAMES; seed++) {
+			Board board = TestGames.newGame(seed);
+			Board reference = TestGames.newGame(seed);
+			CardBattleAI ai = new CardBattleAI(board);
+			CardBattleAI referenceAI = new CardBattleAI(reference);
+			SplittableRandom random = new SplittableRandom(seed);
+			while (!TestGames.isOver(referenceAI, reference)) {
+				ByteBuffer before = GameSnapshot.encode(board);
+				for (int excursion = 0; excursion < EXCURSIONS; excursion++) {
+					int depth = board.getJournalDepth();
+					int plies = 1 + random.nextInt(MAX_PLIES);
+					for (int ply = 0; ply < plies; ply++) {
+						Arrays.fill(rolls, 3 + random.nextInt(5));
+						makeRandomMove(board, random, rolls);
+
+						// Sometimes take back the newest move at once
+						if (board.getJournalDepth() > depth && random.nextInt(4) == 0) {
+							board.unmakeTo(board.getJournalDepth() - 1);
+						}
+					}
+					board.unmakeTo(depth);
+					if (!GameSnapshot.encode(board).equals(before) || board.computePositionKey() != board.getPositionKey()) {
+						return false;
+					}
+				}
+				TestGames.playTurn(ai, board, "Medium", "Hard");
+				TestGames.playTurn(referenceAI, reference, "Medium", "Hard");
+				if (!GameSnapshot.encode(board).equals(GameSnapshot.encode(reference))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	// Private helper makes a random move for a random Player, or ends the turn
+	// with the given contamination damage
+	private static void makeRandomMove(Board board, SplittableRandom random, int[] rolls) {
+		Player player = random.nextBoolean() ? board.getHumanPlayer() : board.getComputerPlayer();
+		if (board.isFull() || player.getHand().isEmpty() || random.nextInt(3) == 0) {
+			board.makeEndTurn(rolls);
+			return;
+		}
+		Card card = player.getHand().get(random.nextInt(player.getHand().size()));
+		int node = board.getEmptyNode(random.nextInt(board.getEmptyCount()));
+		board.makeMove(card, node / 5, node % 5);
+	}
+}
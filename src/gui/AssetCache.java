@@ -0,0 +1,214 @@
+package gui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontFormatException;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+
+/*
+ * Shared cache of the fonts and images used by the GUI. start() loads everything on a background thread, so
+ * windows can be shown right away: until loading finishes, getters return placeholders, and the actions given to
+ * whenLoaded run on the event dispatch thread once the real assets are ready. Card backgrounds are decoded once
+ * and stored pre-scaled to TILE_SIZE in an image format the screen can draw directly.
+ */
+
+public final class AssetCache {
+
+    // Size at which Card backgrounds are drawn
+    public static final int TILE_SIZE = 170;
+
+    private static final String FONT_FILE = "art/fonts/8bit.ttf";
+    private static final String TYPES_DIRECTORY = "art/types/";
+    private static final String[] ICON_FILES = { "art/instructionsGame.jpg", "art/instructionsCard.jpg",
+            "art/instructionsTypes.jpg" };
+    private static final Color PLACEHOLDER_COLOR = Color.DARK_GRAY;
+
+    private static final AssetCache INSTANCE = new AssetCache();
+
+    private final Map<String, BufferedImage> tileBackgrounds;
+    private final Map<String, ImageIcon> icons;
+    private final BufferedImage placeholder;
+    private final List<Runnable> loadedActions;
+    private volatile Font cardFont;
+    private boolean started;
+    private boolean loaded;
+
+    private AssetCache() {
+        this.tileBackgrounds = new ConcurrentHashMap<String, BufferedImage>();
+        this.icons = new ConcurrentHashMap<String, ImageIcon>();
+        this.loadedActions = new ArrayList<Runnable>();
+        this.cardFont = new Font(Font.MONOSPACED, Font.PLAIN, 18);
+        this.placeholder = createTileImage();
+        Graphics2D g2d = placeholder.createGraphics();
+        g2d.setColor(PLACEHOLDER_COLOR);
+        g2d.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+        g2d.dispose();
+    }
+
+    public static AssetCache getInstance() {
+        return INSTANCE;
+    }
+
+    // Starts loading every asset on a background thread. Does nothing if
+    // loading has already been started
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        Thread loader = new Thread(new Runnable() {
+            public void run() {
+                loadAll();
+            }
+        }, "Card Battle asset loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    // Returns true once every asset has been loaded
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    // Runs the given action on the event dispatch thread once every asset has
+    // been loaded, or right away if they already are
+    public void whenLoaded(Runnable action) {
+        synchronized (this) {
+            if (!loaded) {
+                loadedActions.add(action);
+                return;
+            }
+        }
+        SwingUtilities.invokeLater(action);
+    }
+
+    // Returns the font used to draw Cards, or a plain placeholder font if it
+    // has not been loaded yet
+    public Font getCardFont() {
+        return cardFont;
+    }
+
+    // Returns the background with the given file name (such as "Toxic.jpg"),
+    // scaled to TILE_SIZE, or a placeholder if it has not been loaded yet.
+    // Returns null if there is no such background
+    public BufferedImage getTileBackground(String name) {
+        BufferedImage background = tileBackgrounds.get(name);
+        if (background == null && !isLoaded()) {
+            return placeholder;
+        }
+        return background;
+    }
+
+    // Returns the image at the given path as an icon, loading and caching it
+    // now if it was not loaded in the background. A missing image gives an
+    // empty icon
+    public ImageIcon getIcon(String path) {
+        ImageIcon icon = icons.get(path);
+        if (icon == null) {
+            icon = loadIcon(path);
+            icons.put(path, icon);
+        }
+        return icon;
+    }
+
+    private void loadAll() {
+        try {
+            cardFont = Font.createFont(Font.TRUETYPE_FONT, new File(FONT_FILE)).deriveFont(18f);
+        } catch (IOException | FontFormatException e) {
+            System.err.println("Error loading fonts!");
+        }
+
+        File[] images = new File(TYPES_DIRECTORY).listFiles();
+        if (images != null) {
+            for (File file : images) {
+                if (!file.isHidden()) {
+                    try {
+                        BufferedImage background = ImageIO.read(file);
+                        if (background != null) {
+                            tileBackgrounds.put(file.getName(), scaleToTile(background));
+                        }
+                    } catch (IOException e) {
+                        System.err.println("Error loading card background image " + file.getName());
+                    }
+                }
+            }
+        }
+
+        for (String path : ICON_FILES) {
+            getIcon(path);
+        }
+
+        List<Runnable> actions;
+        synchronized (this) {
+            loaded = true;
+            actions = new ArrayList<Runnable>(loadedActions);
+            loadedActions.clear();
+        }
+        for (Runnable action : actions) {
+            SwingUtilities.invokeLater(action);
+        }
+    }
+
+    private static ImageIcon loadIcon(String path) {
+        File file = new File(path);
+        if (file.isFile()) {
+            try {
+                BufferedImage image = ImageIO.read(file);
+                if (image != null) {
+                    return new ImageIcon(toCompatible(image));
+                }
+            } catch (IOException e) {
+                System.err.println("Error loading image " + path);
+            }
+        }
+        return new ImageIcon();
+    }
+
+    // Scales the given image to TILE_SIZE into an image the screen can draw
+    // directly
+    private static BufferedImage scaleToTile(BufferedImage image) {
+        BufferedImage tile = createTileImage();
+        Graphics2D g2d = tile.createGraphics();
+        g2d.drawImage(image, 0, 0, TILE_SIZE, TILE_SIZE, null);
+        g2d.dispose();
+        return tile;
+    }
+
+    // Copies the given image into an image the screen can draw directly
+    private static BufferedImage toCompatible(BufferedImage image) {
+        BufferedImage copy = createImage(image.getWidth(), image.getHeight());
+        Graphics2D g2d = copy.createGraphics();
+        g2d.drawImage(image, 0, 0, null);
+        g2d.dispose();
+        return copy;
+    }
+
+    private static BufferedImage createTileImage() {
+        return createImage(TILE_SIZE, TILE_SIZE);
+    }
+
+    // Creates an opaque image in the screen's pixel format, or a plain RGB
+    // image when there is no screen
+    private static BufferedImage createImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        GraphicsConfiguration configuration = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        return configuration.createCompatibleImage(width, height, Transparency.OPAQUE);
+    }
+}
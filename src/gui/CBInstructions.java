@@ -24,10 +24,10 @@ public class CBInstructions extends JFrame {
 
 		JTabbedPane tabbedPane = new JTabbedPane();
 
-		JComponent gamePanel = makeTextPanel(new ImageIcon("art/instructionsGame.jpg"));
-		JComponent cardPanel = makeTextPanel(new ImageIcon("art/instructionsCard.jpg"));
-		JComponent typePanel = makeTextPanel(new ImageIcon("art/instructionsTypes.jpg"));
-		JComponent zonePanel = makeTextPanel(new ImageIcon("InstructionsGame.jpg"));
+		JComponent gamePanel = makeTextPanel(AssetCache.getInstance().getIcon("art/instructionsGame.jpg"));
+		JComponent cardPanel = makeTextPanel(AssetCache.getInstance().getIcon("art/instructionsCard.jpg"));
+		JComponent typePanel = makeTextPanel(AssetCache.getInstance().getIcon("art/instructionsTypes.jpg"));
+		JComponent zonePanel = makeTextPanel(AssetCache.getInstance().getIcon("InstructionsGame.jpg"));
 		
 		// Add tabs to tabbedPane
 		
@@ -3,9 +3,11 @@ package gui;
 import javax.swing.*;
 
 import Main.Board;
+import Main.GameSnapshot;
 
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
 
 public class CBMenu extends JMenuBar {
 
@@ -38,7 +40,7 @@ public class CBMenu extends JMenuBar {
                 
                 // PERFORM BOARD SETUP STUFF HERE
                 
-                view.repaint();
+                view.refresh();
             }
         }); 
         
@@ -47,6 +49,40 @@ public class CBMenu extends JMenuBar {
 
         // Create action for "Easy", "Medium", and "Hard" menu items
 
+        // Create "Save Game" and "Load Game" menu items
+        JMenuItem save = new JMenuItem("Save Game...");
+        JMenuItem load = new JMenuItem("Load Game...");
+        JFileChooser chooser = new JFileChooser();
+
+        // Add actions for "Save Game" and "Load Game"
+        save.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                if (chooser.showSaveDialog(CBMenu.this) == JFileChooser.APPROVE_OPTION) {
+                    try {
+                        GameSnapshot.save(board, chooser.getSelectedFile().toPath());
+                    } catch (IOException error) {
+                        JOptionPane.showMessageDialog(CBMenu.this, "The game could not be saved: " + error.getMessage(),
+                                "Save Game", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }
+        });
+        load.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                if (chooser.showOpenDialog(CBMenu.this) == JFileChooser.APPROVE_OPTION) {
+                    try {
+                        GameSnapshot.load(chooser.getSelectedFile().toPath(), board);
+                    } catch (IOException error) {
+                        board.resetBoard();
+                        JOptionPane.showMessageDialog(CBMenu.this,
+                                "The saved game could not be loaded: " + error.getMessage(), "Load Game",
+                                JOptionPane.ERROR_MESSAGE);
+                    }
+                    view.refresh();
+                }
+            }
+        });
+
         // Create "Quit Card Battle" menu item
         JMenuItem quit = new JMenuItem("Quit Card Battle");
 
@@ -62,6 +98,8 @@ public class CBMenu extends JMenuBar {
         newGame.add(easy);
         newGame.add(medium);
         newGame.add(hard);
+        game.add(save);
+        game.add(load);
         game.add(quit);
 
         // Add "Game" to menu bar
@@ -12,6 +12,9 @@ public class CardBattleGUI {
 	
 	public static void main(String[] args) throws IOException {
 	    
+	    // Load fonts and images in the background while the game is set up
+	    AssetCache.getInstance().start();
+	    
 	    Player human = new Player("Human");
 	    Board board = new Board(human, new Player("Computer"));
 	    board.setDifficulty("Easy");
@@ -68,7 +68,7 @@ public class ControlPanel extends JPanel {
                         board.placeCard(board.getComputerPlayer().getHand().get(0), selectedSlot[0], selectedSlot[1]);
                     }
                 }
-                view.repaint();
+                view.refresh();
                 cardInfo.setText(getCardInfo(board.getCard(selectedSlot[0], selectedSlot[1])));
             }
         });
@@ -85,7 +85,7 @@ public class ControlPanel extends JPanel {
                         board.removeCard(selectedSlot[0], selectedSlot[1]);
                     }
                 }
-                view.repaint();
+                view.refresh();
                 cardInfo.setText("");
             }
         });
@@ -95,7 +95,12 @@ public class ControlPanel extends JPanel {
         cardInfo.setEditable(false);
         cardInfo.setPreferredSize(new Dimension(280, 200));
         cardInfo.setBackground(Color.BLACK);
-        cardInfo.setFont(ViewPanel.CARD_FONT.deriveFont(20));
+        cardInfo.setFont(AssetCache.getInstance().getCardFont().deriveFont(20));
+        AssetCache.getInstance().whenLoaded(new Runnable() {
+            public void run() {
+                cardInfo.setFont(AssetCache.getInstance().getCardFont().deriveFont(20));
+            }
+        });
         cardInfo.setForeground(Color.WHITE);
 
         gc.gridx = 0;
@@ -4,18 +4,12 @@ import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.Font;
-import java.awt.FontFormatException;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
-import javax.imageio.ImageIO;
 import javax.swing.BorderFactory;
 import javax.swing.JPanel;
 
@@ -30,75 +24,186 @@ public class ViewPanel extends JPanel {
     private static final Color NEUTRAL_COLOR = Color.LIGHT_GRAY;
     private static final Color FRIENDLY_COLOR = Color.GREEN;
     private static final Color ENEMY_COLOR = Color.RED;
-    public static final Font CARD_FONT = loadFont();
 
     private static final long serialVersionUID = 1L;
 
+    // Size of one cell's tile and of the whole board, in image pixels
+    private static final int TILE_SIZE = 180;
+    private static final int BOARD_SIZE = 5 * TILE_SIZE;
+    private static final int CELLS = 25;
+
+    private static final BasicStroke ZONE_STROKE = new BasicStroke(2);
+    private static final BasicStroke CARD_STROKE = new BasicStroke(5);
+    private static final BasicStroke SELECTED_STROKE = new BasicStroke(7);
+    private static final AlphaComposite BACKGROUND_COMPOSITE = AlphaComposite.getInstance(AlphaComposite.SRC_OVER,
+            0.3f);
+
     private Board board;
     private int[] selected;
-    Map<String, BufferedImage> backgrounds;
+    private AssetCache assets;
+
+    // The whole board as last drawn, and the tile of each cell. A tile is
+    // only redrawn when the key it was drawn from (the handle and version of
+    // its Card, its Zone and whether it is selected) changes
+    private BufferedImage backBuffer;
+    private BufferedImage[] tiles;
+    private boolean[] tileDrawn;
+    private int[] tileHandles;
+    private int[] tileVersions;
+    private String[] tileZones;
+    private boolean[] tileSelected;
 
     public ViewPanel(Board board) {
 
         // Set panel attributes
         this.board = board;
-        this.backgrounds = new HashMap<String, BufferedImage>();
+        this.assets = AssetCache.getInstance();
         this.selected = new int[2];
         selected[0] = -1;
         selected[1] = -1;
-        setPreferredSize(new Dimension(900, 900));
+        setPreferredSize(new Dimension(BOARD_SIZE, BOARD_SIZE));
         this.setBorder(BorderFactory.createMatteBorder(1, 1, 1, 1, BORDER_COLOR));
-        loadBackgroundImages();
+
+        // Create the back buffer and tiles once, to be redrawn in place
+        this.backBuffer = new BufferedImage(BOARD_SIZE, BOARD_SIZE, BufferedImage.TYPE_INT_ARGB_PRE);
+        this.tiles = new BufferedImage[CELLS];
+        for (int cell = 0; cell < CELLS; cell++) {
+            tiles[cell] = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        this.tileDrawn = new boolean[CELLS];
+        this.tileHandles = new int[CELLS];
+        this.tileVersions = new int[CELLS];
+        this.tileZones = new String[CELLS];
+        this.tileSelected = new boolean[CELLS];
+
+        // Tiles drawn with placeholders are redrawn once the assets are ready
+        assets.start();
+        assets.whenLoaded(new Runnable() {
+            public void run() {
+                Arrays.fill(tileDrawn, false);
+                repaint();
+            }
+        });
     }
 
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
         setBackground(BACKGROUND_COLOR);
-        g.drawImage(drawBoard(), 0, 0, this.getWidth(), this.getHeight(), this);
+        updateTiles(g.getClipBounds());
+        g.drawImage(backBuffer, 0, 0, this.getWidth(), this.getHeight(), this);
     }
 
-    private BufferedImage drawBoard() {
-        BufferedImage image = new BufferedImage(900, 900, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = (Graphics2D) image.getGraphics();
-        for (int row = 0; row < 5; row++) {
-            for (int column = 0; column < 5; column++) {
+    // Repaints only the cells whose Card, Zone or selection changed since they
+    // were last drawn
+    public void refresh() {
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (isTileStale(cell)) {
+                repaintCell(cell / 5, cell % 5);
+            }
+        }
+    }
+
+    // Redraws the tile of every cell that changed and copies it into the back
+    // buffer. Changed cells outside the given clip are scheduled to be
+    // repainted, since this paint will not show them
+    private void updateTiles(Rectangle clip) {
+        Graphics2D g2d = null;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (isTileStale(cell)) {
+                int row = cell / 5;
+                int column = cell % 5;
                 Card card = board.getCard(row, column);
                 Zone zone = board.getZone(row, column);
-                BufferedImage cardImage = drawCard(card, zone, selected[0] == row && selected[1] == column);
-                g2d.drawImage(cardImage, column * cardImage.getHeight(), row * cardImage.getWidth(),
-                        cardImage.getWidth(), cardImage.getHeight(), this);
+                boolean isSelected = selected[0] == row && selected[1] == column;
+                drawCard(tiles[cell], card, zone, isSelected);
+                if (g2d == null) {
+                    g2d = backBuffer.createGraphics();
+                    g2d.setComposite(AlphaComposite.Src);
+                }
+                g2d.drawImage(tiles[cell], column * TILE_SIZE, row * TILE_SIZE, this);
+                tileDrawn[cell] = true;
+                tileHandles[cell] = card == null ? -1 : card.getHandle();
+                tileVersions[cell] = card == null ? 0 : board.getCardStore().getVersion(card.getHandle());
+                tileZones[cell] = zone == null ? null : zone.getType();
+                tileSelected[cell] = isSelected;
+                if (clip != null && !clip.contains(cellBounds(row, column))) {
+                    repaintCell(row, column);
+                }
             }
         }
-        return image;
+        if (g2d != null) {
+            g2d.dispose();
+        }
+    }
+
+    // Returns true if the given cell's tile no longer shows the cell
+    private boolean isTileStale(int cell) {
+        if (!tileDrawn[cell]) {
+            return true;
+        }
+        int row = cell / 5;
+        int column = cell % 5;
+        int handle = board.getCardHandle(row, column);
+        if (handle != tileHandles[cell]) {
+            return true;
+        }
+        if (handle >= 0 && board.getCardStore().getVersion(handle) != tileVersions[cell]) {
+            return true;
+        }
+        Zone zone = board.getZone(row, column);
+        String zoneType = zone == null ? null : zone.getType();
+        if (zoneType == null ? tileZones[cell] != null : !zoneType.equals(tileZones[cell])) {
+            return true;
+        }
+        return tileSelected[cell] != (selected[0] == row && selected[1] == column);
     }
 
-    protected BufferedImage drawCard(Card card, Zone zone, boolean selected) {
-        BufferedImage image = new BufferedImage(180, 180, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = (Graphics2D) image.getGraphics();
+    // Repaints the part of the panel showing the given cell
+    private void repaintCell(int row, int column) {
+        if (row >= 0 && column >= 0) {
+            repaint(cellBounds(row, column));
+        }
+    }
+
+    // Returns the part of the panel showing the given cell
+    private Rectangle cellBounds(int row, int column) {
+        int left = column * getWidth() / 5;
+        int top = row * getHeight() / 5;
+        int right = (column + 1) * getWidth() / 5;
+        int bottom = (row + 1) * getHeight() / 5;
+        return new Rectangle(left, top, right - left + 1, bottom - top + 1);
+    }
+
+    protected void drawCard(BufferedImage image, Card card, Zone zone, boolean selected) {
+        Graphics2D g2d = image.createGraphics();
+
+        // Clear whatever the tile showed before
+        g2d.setComposite(AlphaComposite.Clear);
+        g2d.fillRect(0, 0, image.getWidth(), image.getHeight());
 
         // Draw the card's background
         BufferedImage background = null;
 
         if (card == null) {
             if (zone == null) {
-                background = backgrounds.get("Empty.jpg");
+                background = assets.getTileBackground("Empty.jpg");
             } else {
-                background = backgrounds.get(zone.getType() + ".jpg");
+                background = assets.getTileBackground(zone.getType() + ".jpg");
             }
 
         } else {
-            background = backgrounds.get(card.getType() + ".jpg");
+            background = assets.getTileBackground(card.getType() + ".jpg");
         }
 
-        g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.3f));
-        g2d.drawImage(background, 5, 5, 170, 170, this);
-        g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1f));
+        g2d.setComposite(BACKGROUND_COMPOSITE);
+        g2d.drawImage(background, 5, 5, this);
+        g2d.setComposite(AlphaComposite.SrcOver);
 
         // Draw the Card's information
 
         if (card == null) {
             g2d.setColor(NEUTRAL_COLOR);
-            g2d.setStroke(new BasicStroke(2));
+            g2d.setStroke(ZONE_STROKE);
 
             if (zone != null) {
                 String zoneString = "**" + zone.getType() + " zone**";
@@ -112,9 +217,9 @@ public class ViewPanel extends JPanel {
             } else {
                 g2d.setColor(ENEMY_COLOR);
             }
-            g2d.setStroke(new BasicStroke(5));
+            g2d.setStroke(CARD_STROKE);
 
-            g2d.setFont(CARD_FONT);
+            g2d.setFont(assets.getCardFont());
 
             // Draw the card's name
             String name = card.getName();
@@ -149,45 +254,20 @@ public class ViewPanel extends JPanel {
         }
 
         if (selected) {
-            g2d.setStroke(new BasicStroke(7));
+            g2d.setStroke(SELECTED_STROKE);
             g2d.setColor(Color.WHITE);
         } else if (zone != null) {
             g2d.setColor(Color.YELLOW);
         }
         g2d.drawRoundRect(5, 5, 170, 170, 5, 5);
-        return image;
+        g2d.dispose();
     }
 
     public void updateSelected(int row, int column) {
+        repaintCell(selected[0], selected[1]);
         this.selected[0] = row;
         this.selected[1] = column;
         System.out.println("Row: " + selected[0] + ", Column: " + selected[1]);
-        repaint();
-    }
-
-    private static Font loadFont() {
-        Font cardFont = null;
-        try {
-            cardFont = Font.createFont(Font.TRUETYPE_FONT, new File("art/fonts/8bit.ttf"));
-            cardFont = cardFont.deriveFont(18f);
-        } catch (IOException | FontFormatException e) {
-            throw new IllegalArgumentException("Error loading fonts!");
-        }
-        return cardFont;
-    }
-
-    private void loadBackgroundImages() {
-        File directory = new File("art/types/");
-        File[] images = directory.listFiles();
-        for (int i = 0; i < images.length; i++) {
-            if (!images[i].isHidden()) {
-                try {
-                    BufferedImage background = ImageIO.read(images[i]);
-                    backgrounds.put(images[i].getName(), background);
-                } catch (IOException e) {
-                    throw new IllegalArgumentException("Error loading card background images");
-                }
-            }
-        }
+        repaintCell(row, column);
     }
 }